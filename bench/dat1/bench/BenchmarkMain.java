@@ -0,0 +1,46 @@
+package dat1.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks in this package with the GC profiler, so that every 
+ * result comes with its allocation rate (<tt>gc.alloc.rate.norm</tt>, in 
+ * bytes per operation), and writes the results as JSON to 
+ * <tt>jmh-result.json</tt>, unless another file is given with <tt>-rff</tt>.
+ * Takes the usual JMH command line options, such as a regular expression 
+ * that selects the benchmarks to run:
+ * <pre>
+ *   java dat1.bench.BenchmarkMain TreeBenchmark -p type=AVLTree
+ * </pre>
+ * The Maven build runs this class with <tt>mvn -P jmh verify</tt>, and 
+ * passes the options in the <tt>jmh.args</tt> property on.
+ * 
+ * @author K. Atas
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) 
+            throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkMain.class.getPackage().getName() + ".");
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.result("jmh-result.json");
+        }
+        Options options = builder
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .build();
+        new Runner(options).run();
+    }
+}
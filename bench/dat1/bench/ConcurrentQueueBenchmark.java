@@ -0,0 +1,125 @@
+package dat1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dat1.MpmcQueue;
+import dat1.Queue;
+import dat1.SpscQueue;
+
+/**
+ * Measures the throughput of handing items from producer threads to 
+ * consumer threads through an {@link SpscQueue}, an {@link MpmcQueue} and a
+ * {@link Queue} that is guarded by <tt>synchronized</tt>. Each group pairs 
+ * producers with consumers. The non-blocking <tt>offer()</tt> and 
+ * <tt>poll()</tt> are measured, so a failed attempt counts as an operation
+ * as well; compare the producer and consumer rates separately.
+ * 
+ * @author K. Atas
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentQueueBenchmark {
+    private static final int CAPACITY = 1024;
+    private static final Integer ITEM = Integer.valueOf(42);
+    
+    private SpscQueue<Integer> spscQueue;
+    private MpmcQueue<Integer> mpmcQueue;
+    private SynchronizedQueue<Integer> synchronizedQueue;
+    
+    @Setup
+    public void setUp() {
+        spscQueue = new SpscQueue<Integer>(CAPACITY);
+        mpmcQueue = new MpmcQueue<Integer>(CAPACITY);
+        synchronizedQueue = new SynchronizedQueue<Integer>(CAPACITY);
+    }
+    
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public boolean spscOffer() {
+        return spscQueue.offer(ITEM);
+    }
+    
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Integer spscPoll() {
+        return spscQueue.poll();
+    }
+    
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(2)
+    public boolean mpmcOffer() {
+        return mpmcQueue.offer(ITEM);
+    }
+    
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(2)
+    public Integer mpmcPoll() {
+        return mpmcQueue.poll();
+    }
+    
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(2)
+    public boolean synchronizedOffer() {
+        return synchronizedQueue.offer(ITEM);
+    }
+    
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(2)
+    public Integer synchronizedPoll() {
+        return synchronizedQueue.poll();
+    }
+    
+    /**
+     * A bounded {@link Queue} whose methods are all <tt>synchronized</tt>, 
+     * as a baseline.
+     */
+    static class SynchronizedQueue<E> {
+        private final Queue<E> queue = new Queue<E>();
+        private final int capacity;
+        private int size;
+        
+        SynchronizedQueue(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        synchronized boolean offer(E item) {
+            if (size == capacity) {
+                return false;
+            }
+            queue.enqueue(item);
+            size++;
+            return true;
+        }
+        
+        synchronized E poll() {
+            if (size == 0) {
+                return null;
+            }
+            size--;
+            return queue.dequeue();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dat1.bench;
+
+import java.util.Random;
+
+/**
+ * The orders in which the benchmarks present keys to a data structure.
+ * 
+ * @author K. Atas
+ */
+public enum KeyOrder {
+    /**
+     * Every key once, in a random order.
+     */
+    RANDOM {
+        Integer[] keys(int n, Random random) {
+            Integer[] keys = SORTED.keys(n, random);
+            for (int i = n - 1; i > 0; i--) { // Fisher-Yates shuffle
+                int j = random.nextInt(i + 1);
+                Integer key = keys[i];
+                keys[i] = keys[j];
+                keys[j] = key;
+            }
+            return keys;
+        }
+    },
+    
+    /**
+     * Every key once, in ascending order. This degenerates a plain 
+     * <tt>BinaryTree</tt> into a linked list.
+     */
+    SORTED {
+        Integer[] keys(int n, Random random) {
+            Integer[] keys = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = i;
+            }
+            return keys;
+        }
+    },
+    
+    /**
+     * Keys drawn with a Zipfian distribution (with exponent 1), so that the
+     * key of rank <tt>k</tt> comes up about <tt>1/k</tt> times as often as 
+     * the most popular key. The ranks are assigned to the keys at random.
+     * Models the skewed access of a cache or an index on a popular column.
+     */
+    ZIPFIAN {
+        Integer[] keys(int n, Random random) {
+            Integer[] byRank = RANDOM.keys(n, random);
+            double[] cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / (k + 1);
+                cumulative[k] = sum;
+            }
+            Integer[] keys = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                double u = random.nextDouble() * sum;
+                int lo = 0;
+                int hi = n - 1;
+                while (lo < hi) { // the first rank whose cumulative weight >= u
+                    int mid = (lo + hi) >>> 1;
+                    if (cumulative[mid] < u) {
+                        lo = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                keys[i] = byRank[lo];
+            }
+            return keys;
+        }
+    };
+    
+    /**
+     * Generates <tt>n</tt> keys in the range from 0 to <tt>n</tt>, exclusive,
+     * in this order.
+     * 
+     * @param n the number of keys.
+     * @param random the source of randomness.
+     * @return the keys. Only <tt>ZIPFIAN</tt> repeats keys.
+     */
+    abstract Integer[] keys(int n, Random random);
+}
@@ -0,0 +1,146 @@
+package dat1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dat1.IndexedSkipList;
+import dat1.LinkedList;
+import dat1.UnrolledLinkedList;
+
+/**
+ * Compares {@link LinkedList} with {@link UnrolledLinkedList} and 
+ * {@link IndexedSkipList}: a full scan for an item that is not in the list,
+ * positional access that alternates between two distant offsets, a loop
+ * over all offsets, adding and removing at the ends (which keeps the size 
+ * constant), and building a list from scratch. Run with the JMH GC profiler
+ * (<tt>-prof gc</tt>) to compare the bytes allocated per item in 
+ * <tt>build</tt>.
+ * 
+ * @author K. Atas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListBenchmark {
+    @Param({ "1000", "100000" })
+    private int size;
+    
+    private LinkedList<Integer> linkedList;
+    private UnrolledLinkedList<Integer> unrolledList;
+    private IndexedSkipList<Integer> skipList;
+    private Integer[] items;
+    private final Integer missing = Integer.valueOf(-1);
+    private final Integer item = Integer.valueOf(-2);
+    private int index;
+    
+    @Setup
+    public void setUp() {
+        items = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = i;
+        }
+        linkedList = new LinkedList<Integer>(items);
+        unrolledList = new UnrolledLinkedList<Integer>(items);
+        skipList = new IndexedSkipList<Integer>(items);
+    }
+    
+    @Benchmark
+    public int linkedScan() {
+        return linkedList.indexOf(missing);
+    }
+    
+    @Benchmark
+    public int unrolledScan() {
+        return unrolledList.indexOf(missing);
+    }
+    
+    @Benchmark
+    public Integer linkedGetAlternating() {
+        return linkedList.get(nextIndex());
+    }
+    
+    @Benchmark
+    public Integer unrolledGetAlternating() {
+        return unrolledList.get(nextIndex());
+    }
+    
+    @Benchmark
+    public Integer skipListGetAlternating() {
+        return skipList.get(nextIndex());
+    }
+    
+    @Benchmark
+    public long linkedIndexedLoop() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += linkedList.get(i);
+        }
+        return sum;
+    }
+    
+    @Benchmark
+    public long skipListIndexedLoop() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += skipList.get(i);
+        }
+        return sum;
+    }
+    
+    @Benchmark
+    public Integer linkedAddLastRemoveFirst() {
+        linkedList.addLast(item);
+        return linkedList.removeFirst();
+    }
+    
+    @Benchmark
+    public Integer unrolledAddLastRemoveFirst() {
+        unrolledList.addLast(item);
+        return unrolledList.removeFirst();
+    }
+    
+    @Benchmark
+    public Integer linkedAddFirstRemoveLast() {
+        linkedList.addFirst(item);
+        return linkedList.removeLast();
+    }
+    
+    @Benchmark
+    public Integer unrolledAddFirstRemoveLast() {
+        unrolledList.addFirst(item);
+        return unrolledList.removeLast();
+    }
+    
+    @Benchmark
+    public LinkedList<Integer> linkedBuild() {
+        return new LinkedList<Integer>(items);
+    }
+    
+    @Benchmark
+    public UnrolledLinkedList<Integer> unrolledBuild() {
+        return new UnrolledLinkedList<Integer>(items);
+    }
+    
+    /**
+     * Alternates between a quarter and three quarters into the list, so 
+     * that neither end of a list nor a cached position is ever close.
+     */
+    private int nextIndex() {
+        index = index == size / 4 ? 3 * size / 4 : size / 4;
+        return index;
+    }
+}
@@ -0,0 +1,65 @@
+package dat1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dat1.ArrayQueue;
+import dat1.Queue;
+
+/**
+ * Compares the linked {@link Queue} with the circular-array 
+ * {@link ArrayQueue} in steady state: each queue holds <tt>depth</tt> items,
+ * and every operation enqueues one item and dequeues another. Run with the
+ * JMH GC profiler (<tt>-prof gc</tt>) to see the allocation rate per 
+ * operation, which should be zero for the <tt>ArrayQueue</tt>.
+ * 
+ * @author K. Atas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+    @Param({ "16", "1024", "65536" })
+    private int depth;
+    
+    private Queue<Integer> linkedQueue;
+    private ArrayQueue<Integer> arrayQueue;
+    private Integer item;
+    
+    @Setup
+    public void setUp() {
+        linkedQueue = new Queue<Integer>();
+        arrayQueue = new ArrayQueue<Integer>();
+        item = Integer.valueOf(42); // boxed once, so only the queues allocate
+        for (int i = 0; i < depth; i++) {
+            linkedQueue.enqueue(item);
+            arrayQueue.enqueue(item);
+        }
+    }
+    
+    @Benchmark
+    public Integer linkedQueue() {
+        linkedQueue.enqueue(item);
+        return linkedQueue.dequeue();
+    }
+    
+    @Benchmark
+    public Integer arrayQueue() {
+        arrayQueue.enqueue(item);
+        return arrayQueue.dequeue();
+    }
+}
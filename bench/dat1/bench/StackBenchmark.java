@@ -0,0 +1,92 @@
+package dat1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dat1.ArrayStack;
+import dat1.Stack;
+
+/**
+ * Compares the linked {@link Stack} with the {@link ArrayStack}, with and 
+ * without its index, in steady state: each stack holds <tt>depth</tt> 
+ * distinct items, and every operation pushes one item and pops it again. 
+ * <tt>contains</tt> looks for the item at the bottom of the stack, which a 
+ * scan finds last.
+ * 
+ * @author K. Atas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackBenchmark {
+    @Param({ "16", "1024" })
+    private int depth;
+    
+    private Stack<Integer> linkedStack;
+    private ArrayStack<Integer> arrayStack;
+    private ArrayStack<Integer> indexedStack;
+    private Integer item;
+    private Integer bottom;
+    
+    @Setup
+    public void setUp() {
+        linkedStack = new Stack<Integer>();
+        arrayStack = new ArrayStack<Integer>();
+        indexedStack = new ArrayStack<Integer>(depth, true);
+        for (int i = 0; i < depth; i++) {
+            Integer item = Integer.valueOf(i);
+            linkedStack.push(item);
+            arrayStack.push(item);
+            indexedStack.push(item);
+        }
+        item = Integer.valueOf(-1);
+        bottom = Integer.valueOf(0);
+    }
+    
+    @Benchmark
+    public Integer linkedPushPop() {
+        linkedStack.push(item);
+        return linkedStack.pop();
+    }
+    
+    @Benchmark
+    public Integer arrayPushPop() {
+        arrayStack.push(item);
+        return arrayStack.pop();
+    }
+    
+    @Benchmark
+    public Integer indexedPushPop() {
+        indexedStack.push(item);
+        return indexedStack.pop();
+    }
+    
+    @Benchmark
+    public boolean linkedContains() {
+        return linkedStack.contains(bottom);
+    }
+    
+    @Benchmark
+    public boolean arrayContains() {
+        return arrayStack.contains(bottom);
+    }
+    
+    @Benchmark
+    public boolean indexedContains() {
+        return indexedStack.contains(bottom);
+    }
+}
@@ -0,0 +1,135 @@
+package dat1.bench;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dat1.BinaryTree;
+import dat1.LinkedList;
+import dat1.TreeNode;
+import dat1.TreeNodeReducer;
+import dat1.TreeNodeVisitor;
+import dat1.TreeTraverser;
+
+/**
+ * Measures the cost of visiting every node of a balanced {@link BinaryTree}
+ * of <tt>size</tt> nodes: with each {@link TreeTraverser}, with the node 
+ * iterators, sequentially and in parallel, and by way of the lazy views 
+ * versus <tt>asList()</tt>.
+ * 
+ * @author K. Atas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraversalBenchmark {
+    @Param({ "1000", "100000" })
+    private int size;
+    
+    private BinaryTree<Integer, Integer> tree;
+    private TreeNode<Integer, Integer> root;
+    
+    @Setup
+    public void setUp() {
+        Integer[] keys = KeyOrder.SORTED.keys(size, null);
+        tree = BinaryTree.fromSorted(keys, keys);
+        root = tree.entries().iterator().next();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+    }
+    
+    @Benchmark
+    public void preOrder(Blackhole blackhole) {
+        tree.traverse(TreeTraverser.preOrder(visitor(blackhole)));
+    }
+    
+    @Benchmark
+    public void inOrder(Blackhole blackhole) {
+        tree.traverse(TreeTraverser.inOrder(visitor(blackhole)));
+    }
+    
+    @Benchmark
+    public void postOrder(Blackhole blackhole) {
+        tree.traverse(TreeTraverser.postOrder(visitor(blackhole)));
+    }
+    
+    /**
+     * A {@link Blackhole} may only be used on the benchmark thread, so the 
+     * visitor sums the key hashes in a {@link LongAdder} instead, which the 
+     * worker threads can update concurrently.
+     */
+    @Benchmark
+    public long parallel() {
+        final LongAdder hashes = new LongAdder();
+        tree.traverse(TreeTraverser.parallel(new TreeNodeVisitor() {
+            public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                hashes.add(node.getKey().hashCode());
+            }
+        }));
+        return hashes.sum();
+    }
+    
+    @Benchmark
+    public void inOrderIterator(Blackhole blackhole) {
+        Iterator<TreeNode<Integer, Integer>> nodes = 
+            TreeTraverser.inOrderIterator(root);
+        while (nodes.hasNext()) {
+            blackhole.consume(nodes.next());
+        }
+    }
+    
+    @Benchmark
+    public Integer reduce() {
+        return tree.reduce(
+            new TreeNodeReducer<Integer>() {
+                public Integer identity() {
+                    return 0;
+                }
+                public <K extends Comparable<K>, V> Integer reduce(
+                        TreeNode<K, V> node, Integer left, Integer right) {
+                    return left + 1 + right;
+                }
+            }
+        );
+    }
+    
+    @Benchmark
+    public void values(Blackhole blackhole) {
+        for (Integer value : tree.values()) {
+            blackhole.consume(value);
+        }
+    }
+    
+    @Benchmark
+    public void asList(Blackhole blackhole) {
+        LinkedList<Integer> values = tree.asList();
+        for (Integer value : values) {
+            blackhole.consume(value);
+        }
+    }
+    
+    private static TreeNodeVisitor visitor(final Blackhole blackhole) {
+        return new TreeNodeVisitor() {
+            public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                blackhole.consume(node);
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package dat1.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dat1.AVLTree;
+import dat1.BinaryTree;
+import dat1.RedBlackTree;
+
+/**
+ * Measures <tt>add()</tt>, <tt>get()</tt> and <tt>remove()</tt> on the 
+ * {@link BinaryTree} variants, for keys that arrive in random, sorted and 
+ * Zipfian order (see {@link KeyOrder}). The tree holds <tt>size</tt> 
+ * distinct keys. <tt>get</tt> looks up the next key in the chosen order;
+ * <tt>removeAndAdd</tt> removes it and adds it back, so that the tree keeps
+ * its size; <tt>build</tt> adds all keys to an empty tree.
+ * 
+ * @author K. Atas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+    @Param({ "BinaryTree", "RedBlackTree", "AVLTree" })
+    private String type;
+    
+    @Param({ "RANDOM", "SORTED", "ZIPFIAN" })
+    private KeyOrder order;
+    
+    @Param({ "1000", "10000" })
+    private int size;
+    
+    private BinaryTree<Integer, Integer> tree;
+    private Integer[] keys;
+    private Integer[] distinctKeys;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        keys = order.keys(size, random);
+        distinctKeys = order == KeyOrder.SORTED 
+            ? keys : KeyOrder.RANDOM.keys(size, random);
+        tree = newTree();
+        for (Integer key : distinctKeys) {
+            tree.add(key, key);
+        }
+    }
+    
+    @Benchmark
+    public Integer get() {
+        return tree.get(nextKey());
+    }
+    
+    @Benchmark
+    public Integer removeAndAdd() {
+        Integer key = nextKey();
+        tree.remove(key);
+        return tree.add(key, key);
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BinaryTree<Integer, Integer> build() {
+        BinaryTree<Integer, Integer> tree = newTree();
+        for (Integer key : keys) {
+            tree.add(key, key);
+        }
+        return tree;
+    }
+    
+    /**
+     * Gets the next key in the chosen order, starting over at the end.
+     */
+    private Integer nextKey() {
+        Integer key = keys[next];
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return key;
+    }
+    
+    private BinaryTree<Integer, Integer> newTree() {
+        if (type.equals("RedBlackTree")) {
+            return new RedBlackTree<Integer, Integer>();
+        }
+        if (type.equals("AVLTree")) {
+            return new AVLTree<Integer, Integer>();
+        }
+        return new BinaryTree<Integer, Integer>();
+    }
+}
@@ -0,0 +1,172 @@
+package dat1;
+
+/**
+ * A strictly height-balanced {@link BinaryTree}. In an <tt>AVLTree</tt> the 
+ * heights of the left and right subtrees of any node differ by at most one. 
+ * This keeps the height of the tree below 1.44&middot;log<sub>2</sub>(n + 2),
+ * which is lower than the bound of a {@link RedBlackTree}. Lookups therefore 
+ * take fewer comparisons on average, at the cost of more rotations when keys 
+ * are added or removed. This makes an <tt>AVLTree</tt> the better choice for 
+ * read-heavy workloads.
+ * <p>
+ * The nodes in an <tt>AVLTree</tt> are represented by objects of type 
+ * {@link AVLTreeNode}.
+ * 
+ * @author K. Atas
+ */
+public class AVLTree<K extends Comparable<K>, V> extends BinaryTree<K, V> {
+    
+    /**
+     * Constructs a new <tt>AVLTree</tt>.
+     */
+    public AVLTree() {
+        super();
+    }
+    
+    /**
+     * Creates a new {@link AVLTreeNode}.
+     */
+    protected TreeNode<K, V> createNode(K key, V value) {
+        return new AVLTreeNode<K, V>(key, value);
+    }
+    
+    /**
+     * Does nothing, since an <tt>AVLTree</tt> keeps itself balanced.
+     */
+    protected void rebuild(TreeNode<K, V> node) {
+    }
+    
+    /**
+     * Rebalances the ancestors of the newly inserted <tt>node</tt>.
+     */
+    protected void afterInsertion(TreeNode<K, V> node) {
+        retrace(node.getParent());
+    }
+    
+    /**
+     * Unlinks <tt>node</tt> and rebalances the nodes above the position it
+     * was removed from.
+     */
+    protected void removeNode(TreeNode<K, V> node) {
+        TreeNode<K, V> lowest;
+        if (node.getLeftChild() == null || node.getRightChild() == null) {
+            TreeNode<K, V> child = node.getLeftChild();
+            if (child == null) {
+                child = node.getRightChild();
+            }
+            lowest = node.getParent();
+            replace(node, child);
+        } else {
+            TreeNode<K, V> successor = node.getRightChild();
+            while (successor.getLeftChild() != null) {
+                successor = successor.getLeftChild();
+            }
+            if (successor.getParent() == node) {
+                lowest = successor;
+            } else {
+                lowest = successor.getParent();
+                replace(successor, successor.getRightChild());
+                successor.setRightChild(node.getRightChild());
+            }
+            replace(node, successor);
+            successor.setLeftChild(node.getLeftChild());
+            setHeight(successor, height(node));
+        }
+        updateSubtreeSizes(lowest);
+        retrace(lowest);
+    }
+    
+    /**
+     * Walks up from <tt>node</tt> to the root, updating the height of each 
+     * node along the way and rotating where a node has become unbalanced. 
+     * Stops early once a subtree turns out to have kept its height, because 
+     * the nodes above it are then unaffected.
+     * 
+     * @param node the lowest node whose subtree has changed. May be 
+     *  <tt>null</tt>.
+     */
+    private void retrace(TreeNode<K, V> node) {
+        while (node != null) {
+            TreeNode<K, V> parent = node.getParent();
+            int oldHeight = height(node);
+            int balance = height(node.getLeftChild()) 
+                - height(node.getRightChild());
+            if (balance > 1) {
+                TreeNode<K, V> left = node.getLeftChild();
+                if (height(left.getLeftChild()) < height(left.getRightChild())) {
+                    rotateLeftAndUpdate(left);
+                }
+                rotateRightAndUpdate(node);
+            } else if (balance < -1) {
+                TreeNode<K, V> right = node.getRightChild();
+                if (height(right.getRightChild()) < height(right.getLeftChild())) {
+                    rotateRightAndUpdate(right);
+                }
+                rotateLeftAndUpdate(node);
+            } else {
+                updateHeight(node);
+                if (height(node) == oldHeight) {
+                    break;
+                }
+            }
+            node = parent;
+        }
+    }
+    
+    /**
+     * Rotates <tt>node</tt> to the left and updates the heights of the nodes
+     * involved.
+     * 
+     * @param node a node with a right child.
+     */
+    private void rotateLeftAndUpdate(TreeNode<K, V> node) {
+        TreeNode<K, V> pivot = node.getRightChild();
+        rotateLeft(node);
+        updateHeight(node);
+        updateHeight(pivot);
+    }
+    
+    /**
+     * Rotates <tt>node</tt> to the right and updates the heights of the nodes
+     * involved.
+     * 
+     * @param node a node with a left child.
+     */
+    private void rotateRightAndUpdate(TreeNode<K, V> node) {
+        TreeNode<K, V> pivot = node.getLeftChild();
+        rotateRight(node);
+        updateHeight(node);
+        updateHeight(pivot);
+    }
+    
+    /**
+     * Recomputes the height of <tt>node</tt> from the heights of its 
+     * children.
+     * 
+     * @param node an {@link AVLTreeNode}.
+     */
+    private static void updateHeight(TreeNode<?, ?> node) {
+        setHeight(node, 1 + Math.max(height(node.getLeftChild()), 
+            height(node.getRightChild())));
+    }
+    
+    /**
+     * Gets the height of the specified node. 
+     * 
+     * @param node an {@link AVLTreeNode} or <tt>null</tt>.
+     * @return the height of <tt>node</tt>, or zero if it is <tt>null</tt>.
+     */
+    static int height(TreeNode<?, ?> node) {
+        return node == null ? 0 : ((AVLTreeNode<?, ?>)node).getHeight();
+    }
+    
+    /**
+     * Sets the height of the specified node.
+     * 
+     * @param node an {@link AVLTreeNode}.
+     * @param height the new height.
+     */
+    private static void setHeight(TreeNode<?, ?> node, int height) {
+        ((AVLTreeNode<?, ?>)node).setHeight(height);
+    }
+}
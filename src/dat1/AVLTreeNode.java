@@ -0,0 +1,63 @@
+package dat1;
+
+/**
+ * Represents a node in an {@link AVLTree}. In addition to the lookup key and
+ * its associated value, an <tt>AVLTreeNode</tt> records the height of the 
+ * subtree that it is the root of.
+ * <p>
+ * Newly constructed nodes are leaves, which have a height of one.
+ * 
+ * @author K. Atas
+ */
+public class AVLTreeNode<K extends Comparable<? super K>, V> 
+        extends TreeNode<K, V> {
+    private int height;
+    
+    /**
+     * Constructs a new <tt>AVLTreeNode</tt>.
+     * 
+     * @param key the key of this <tt>AVLTreeNode</tt>.
+     * @param value the value of this <tt>AVLTreeNode</tt>.
+     */
+    public AVLTreeNode(K key, V value) {
+        super(key, value);
+        height = 1;
+    }
+    
+    /**
+     * Gets the height of the subtree rooted at this <tt>AVLTreeNode</tt>.
+     * 
+     * @return the number of nodes on the longest path from this node down to 
+     *  a leaf, including this node itself.
+     */
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Sets the height of the subtree rooted at this <tt>AVLTreeNode</tt>.
+     * 
+     * @param height the new height.
+     */
+    void setHeight(int height) {
+        this.height = height;
+    }
+    
+    /**
+     * Gets the balance factor of this <tt>AVLTreeNode</tt>.
+     * 
+     * @return the height of the left subtree minus the height of the right 
+     *  subtree.
+     */
+    public int getBalance() {
+        return AVLTree.height(getLeftChild()) - AVLTree.height(getRightChild());
+    }
+    
+    /**
+     * Returns a string representation of this <tt>AVLTreeNode</tt>.
+     */
+    public String toString() {
+        return String.format("AVLTreeNode[key: %s, value: %s, height: %d]", 
+            getKey(), getValue(), height);
+    }
+}
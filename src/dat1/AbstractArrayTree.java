@@ -0,0 +1,403 @@
+package dat1;
+
+import java.util.Arrays;
+
+/**
+ * The AA tree that {@link ArrayTree}, {@link IntKeyTree} and
+ * {@link LongKeyTree} are built on, with its nodes stored in arrays.
+ * <p>
+ * Each node is identified by an index. The two child indices and the level of
+ * a node are stored next to each other in a single <tt>int[]</tt>, and the
+ * values in a parallel array. Index zero is reserved for a sentinel node that
+ * stands in for missing children. The slots of removed nodes are kept on a
+ * free list, threaded through the left child links, and reused.
+ * <p>
+ * The keys are left to the subclasses, so that each can store them in an
+ * array of its own key type. A subclass looks keys up by itself, and sets up
+ * the key to add or remove before calling {@link #insert(Object)} or
+ * {@link #delete()}, which reach it through {@link #compareAt(int)} and the
+ * other key hooks.
+ *
+ * @author K. Atas
+ */
+abstract class AbstractArrayTree<V> {
+    static final int NIL = 0;
+    static final int DEFAULT_CAPACITY = 16;
+
+    // the offsets of the left child, right child and level of a node within
+    // its run of STRIDE ints in the links array.
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private static final int LEVEL = 2;
+    private static final int STRIDE = 3;
+
+    V[] values;
+    int root;
+
+    private int[] links;
+    private int size;
+    private int used;
+    private int free;
+    private int match;
+
+    /**
+     * Constructs a new <tt>AbstractArrayTree</tt> with room for the specified
+     * number of key-value pairs before its arrays have to grow. The subclass
+     * must create a key array of <tt>capacity + 1</tt> slots.
+     *
+     * @param capacity the initial capacity.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is negative.
+     */
+    @SuppressWarnings("unchecked")
+    AbstractArrayTree(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(String.valueOf(capacity));
+        }
+        values = (V[])new Object[capacity + 1];
+        links = new int[STRIDE * (capacity + 1)];
+        root = NIL;
+        size = 0;
+        used = 0;
+        free = NIL;
+    }
+
+    /**
+     * Gets the size of this tree.
+     *
+     * @return the number of key-value mappings in this tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the contents of this tree as a {@link LinkedList}.
+     *
+     * @return a {@link LinkedList} containing the items in this tree, in
+     *  ascending order of their keys.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends V> LinkedList<E> asList() {
+        LinkedList<E> list = new LinkedList<E>();
+        appendValues(root, (LinkedList<V>)list);
+        return list;
+    }
+
+    /**
+     * Returns a string representation of this tree.
+     */
+    public String toString() {
+        return asList().toString();
+    }
+
+    /**
+     * Compares the key that is being added or removed with the key of the
+     * specified node.
+     *
+     * @param node the index of a node.
+     * @return a negative integer, zero, or a positive integer as the key is
+     *  less than, equal to, or greater than that of <tt>node</tt>.
+     */
+    abstract int compareAt(int node);
+
+    /**
+     * Stores the key that is being added in the specified node.
+     *
+     * @param node the index of a new node.
+     */
+    abstract void storeKey(int node);
+
+    /**
+     * Copies the key of one node to another.
+     *
+     * @param from the index of the node to copy from.
+     * @param to the index of the node to copy to.
+     */
+    abstract void copyKey(int from, int to);
+
+    /**
+     * Grows the key array to the specified number of slots.
+     *
+     * @param capacity the new length of the key array.
+     */
+    abstract void resizeKeys(int capacity);
+
+    /**
+     * Clears the key of a node that has been removed. Does nothing, unless a
+     * subclass overrides it to let go of key objects.
+     *
+     * @param node the index of the removed node.
+     */
+    void clearKey(int node) {
+    }
+
+    /**
+     * Adds the key that the subclass has set up, with the specified value, or
+     * replaces the value if the key is already present.
+     *
+     * @param value the value to associate with the key.
+     * @return the value that was previously associated with the key,
+     *  otherwise <tt>null</tt>.
+     */
+    final V insert(V value) {
+        match = NIL;
+        root = insert(root, value);
+        if (match != NIL) {
+            V oldValue = values[match];
+            values[match] = value;
+            return oldValue;
+        }
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the key that the subclass has set up. The key must be present.
+     */
+    final void delete() {
+        root = delete(root);
+        size--;
+    }
+
+    final int left(int node) {
+        return links[STRIDE * node + LEFT];
+    }
+
+    final int right(int node) {
+        return links[STRIDE * node + RIGHT];
+    }
+
+    private int level(int node) {
+        return links[STRIDE * node + LEVEL];
+    }
+
+    private void setLeft(int node, int child) {
+        links[STRIDE * node + LEFT] = child;
+    }
+
+    private void setRight(int node, int child) {
+        links[STRIDE * node + RIGHT] = child;
+    }
+
+    private void setLevel(int node, int level) {
+        links[STRIDE * node + LEVEL] = level;
+    }
+
+    /**
+     * Inserts a new node into the subtree rooted at <tt>node</tt>, unless the
+     * key is already present. In that case, the existing node is left as it
+     * is and its index is stored in <tt>match</tt>.
+     *
+     * @param node the root of the subtree.
+     * @param value the value to associate with the key.
+     * @return the (possibly different) root of the subtree.
+     */
+    private int insert(int node, V value) {
+        if (node == NIL) {
+            return allocate(value);
+        }
+        int sortOrder = compareAt(node);
+        if (sortOrder == 0) {
+            match = node;
+            return node;
+        }
+        // the arrays may grow during the recursive call, so the links array
+        // must not be read before the call returns.
+        if (sortOrder < 0) {
+            int child = insert(left(node), value);
+            setLeft(node, child);
+        } else {
+            int child = insert(right(node), value);
+            setRight(node, child);
+        }
+        return match != NIL ? node : split(skew(node));
+    }
+
+    /**
+     * Deletes the node with the key from the subtree rooted at <tt>node</tt>.
+     * The key must be present in that subtree.
+     *
+     * @param node the root of the subtree.
+     * @return the (possibly different) root of the subtree.
+     */
+    private int delete(int node) {
+        int sortOrder = compareAt(node);
+        if (sortOrder < 0) {
+            setLeft(node, delete(left(node)));
+        } else if (sortOrder > 0) {
+            setRight(node, delete(right(node)));
+        } else if (left(node) == NIL && right(node) == NIL) {
+            release(node);
+            return NIL;
+        } else if (left(node) == NIL) {
+            setRight(node, deleteFirst(right(node), node));
+        } else {
+            setLeft(node, deleteLast(left(node), node));
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Moves the key and value of the first node in the subtree rooted at
+     * <tt>node</tt> to <tt>target</tt>, and deletes that node.
+     *
+     * @param node the root of the subtree.
+     * @param target the index of the node to move the key and value to.
+     * @return the (possibly different) root of the subtree.
+     */
+    private int deleteFirst(int node, int target) {
+        if (left(node) == NIL) {
+            int child = right(node);
+            copyKey(node, target);
+            values[target] = values[node];
+            release(node);
+            return child;
+        }
+        setLeft(node, deleteFirst(left(node), target));
+        return rebalance(node);
+    }
+
+    /**
+     * Moves the key and value of the last node in the subtree rooted at
+     * <tt>node</tt> to <tt>target</tt>, and deletes that node.
+     *
+     * @param node the root of the subtree.
+     * @param target the index of the node to move the key and value to.
+     * @return the (possibly different) root of the subtree.
+     */
+    private int deleteLast(int node, int target) {
+        if (right(node) == NIL) {
+            int child = left(node);
+            copyKey(node, target);
+            values[target] = values[node];
+            release(node);
+            return child;
+        }
+        setRight(node, deleteLast(right(node), target));
+        return rebalance(node);
+    }
+
+    /**
+     * Restores the AA tree invariants at <tt>node</tt> after a node has been
+     * deleted below it, by lowering its level if needed and then skewing and
+     * splitting.
+     *
+     * @param node the root of a subtree that a node was deleted from.
+     * @return the (possibly different) root of the subtree.
+     */
+    private int rebalance(int node) {
+        int expected = Math.min(level(left(node)), level(right(node))) + 1;
+        if (expected < level(node)) {
+            setLevel(node, expected);
+            if (expected < level(right(node))) {
+                setLevel(right(node), expected);
+            }
+        }
+        node = skew(node);
+        setRight(node, skew(right(node)));
+        setRight(right(node), skew(right(right(node))));
+        node = split(node);
+        setRight(node, split(right(node)));
+        return node;
+    }
+
+    /**
+     * Removes a left child on the same level as <tt>node</tt> by rotating
+     * right.
+     *
+     * @param node the root of a subtree, or <tt>NIL</tt>.
+     * @return the (possibly different) root of the subtree.
+     */
+    private int skew(int node) {
+        if (node != NIL && level(left(node)) == level(node)) {
+            int pivot = left(node);
+            setLeft(node, right(pivot));
+            setRight(pivot, node);
+            return pivot;
+        }
+        return node;
+    }
+
+    /**
+     * Removes two consecutive right children on the same level as
+     * <tt>node</tt> by rotating left and raising the level of the new root.
+     *
+     * @param node the root of a subtree, or <tt>NIL</tt>.
+     * @return the (possibly different) root of the subtree.
+     */
+    private int split(int node) {
+        if (node != NIL && level(right(right(node))) == level(node)) {
+            int pivot = right(node);
+            setRight(node, left(pivot));
+            setLeft(pivot, node);
+            setLevel(pivot, level(pivot) + 1);
+            return pivot;
+        }
+        return node;
+    }
+
+    /**
+     * Takes a slot for a new leaf node with the key, reusing the slot of a
+     * removed node if there is one and growing the arrays if needed.
+     *
+     * @param value the value to associate with the key.
+     * @return the index of the new node.
+     */
+    private int allocate(V value) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left(node);
+        } else {
+            if (used + 1 == values.length) {
+                grow();
+            }
+            node = ++used;
+        }
+        storeKey(node);
+        values[node] = value;
+        setLeft(node, NIL);
+        setRight(node, NIL);
+        setLevel(node, 1);
+        return node;
+    }
+
+    /**
+     * Returns the slot of a removed node to the free list.
+     *
+     * @param node the index of the removed node.
+     */
+    private void release(int node) {
+        clearKey(node);
+        values[node] = null;
+        setLevel(node, 0);
+        setRight(node, NIL);
+        setLeft(node, free);
+        free = node;
+    }
+
+    /**
+     * Doubles the capacity of the arrays.
+     */
+    private void grow() {
+        int capacity = Math.max(2 * values.length, DEFAULT_CAPACITY + 1);
+        resizeKeys(capacity);
+        values = Arrays.copyOf(values, capacity);
+        links = Arrays.copyOf(links, STRIDE * capacity);
+    }
+
+    /**
+     * Appends the values in the subtree rooted at <tt>node</tt> to a list,
+     * in ascending order of their keys.
+     *
+     * @param node the root of the subtree.
+     * @param list the list to append to.
+     */
+    private void appendValues(int node, LinkedList<V> list) {
+        if (node != NIL) {
+            appendValues(left(node), list);
+            list.addLast(values[node]);
+            appendValues(right(node), list);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package dat1;
+
+/**
+ * The <tt>ArrayQueue</tt> class implements a first-in first-out (FIFO) data
+ * structure with the same interface as {@link Queue}, on top of a circular
+ * array instead of a {@link LinkedList}.
+ * <p>
+ * The items are stored in an array whose length is a power of two. The head
+ * and the tail of the <tt>ArrayQueue</tt> chase each other around that
+ * array, wrapping around at its end. When the array fills up, it is replaced
+ * by one that is twice as large. It never shrinks, so once an
+ * <tt>ArrayQueue</tt> has grown to hold its peak number of items,
+ * <tt>enqueue()</tt> and <tt>dequeue()</tt> no longer allocate any objects
+ * at all, whereas a {@link Queue} allocates a {@link ListNode} for every
+ * item that is enqueued.
+ *
+ * @author K. Atas
+ */
+public class ArrayQueue<E> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] items;
+    private int head;
+    private int size;
+
+    /**
+     * Constructs a new <tt>ArrayQueue</tt>.
+     */
+    public ArrayQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new <tt>ArrayQueue</tt> that can hold at least the
+     * specified number of items before it needs to grow.
+     *
+     * @param capacity the initial capacity.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is negative.
+     */
+    public ArrayQueue(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(String.valueOf(capacity));
+        }
+        items = new Object[powerOfTwo(Math.max(capacity, 1))];
+    }
+
+    /**
+     * Gets the size of this <tt>ArrayQueue</tt>.
+     *
+     * @return the number of items in this <tt>ArrayQueue</tt>.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines whether this <tt>ArrayQueue</tt> is empty.
+     *
+     * @return <tt>true</tt> if this <tt>ArrayQueue</tt> is empty,
+     *  <tt>false</tt> otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Determines whether this <tt>ArrayQueue</tt> contains the specified item.
+     *
+     * @param item the item to look for.
+     * @return <tt>true</tt> if this <tt>ArrayQueue</tt> contains the specified
+     *  item, <tt>false</tt> otherwise.
+     */
+    public boolean contains(E item) {
+        for (int i = 0; i < size; i++) {
+            Object other = items[(head + i) & (items.length - 1)];
+            if (item == null ? other == null : item.equals(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the item at the head of this <tt>ArrayQueue</tt> without
+     * removing it.
+     *
+     * @return the item at the head of this <tt>ArrayQueue</tt>.
+     * @throws QueueEmptyException if the <tt>ArrayQueue</tt> is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (isEmpty()) {
+            throw new QueueEmptyException();
+        }
+        return (E)items[head];
+    }
+
+    /**
+     * Removes and returns the item at the head of this <tt>ArrayQueue</tt>.
+     *
+     * @return the item at the head of this <tt>ArrayQueue</tt>.
+     * @throws QueueEmptyException if the <tt>ArrayQueue</tt> is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E dequeue() {
+        if (isEmpty()) {
+            throw new QueueEmptyException();
+        }
+        E item = (E)items[head];
+        items[head] = null; // let go of the item
+        head = (head + 1) & (items.length - 1);
+        size--;
+        return item;
+    }
+
+    /**
+     * Adds the specified item to the end of this <tt>ArrayQueue</tt>. Only
+     * allocates if the array is full and has to grow.
+     *
+     * @param item the item to place in this <tt>ArrayQueue</tt>.
+     */
+    public void enqueue(E item) {
+        if (size == items.length) {
+            grow();
+        }
+        items[(head + size) & (items.length - 1)] = item;
+        size++;
+    }
+
+    /**
+     * Returns a string representation of this <tt>ArrayQueue</tt>.
+     */
+    public String toString() {
+        StringBuffer str = new StringBuffer();
+        for (int i = 0; i < size; i++) {
+            if (i != 0) {
+                str.append(", ");
+            }
+            str.append(items[(head + i) & (items.length - 1)]);
+        }
+        return String.format("[%s]", str);
+    }
+
+    /**
+     * Replaces the array by one that is twice as large, and moves the items
+     * to the start of it, in order.
+     */
+    private void grow() {
+        if (items.length == 1 << 30) {
+            throw new IllegalStateException("ArrayQueue is too large");
+        }
+        Object[] larger = new Object[items.length << 1];
+        int firstPart = items.length - head;
+        System.arraycopy(items, head, larger, 0, firstPart);
+        System.arraycopy(items, 0, larger, firstPart, head);
+        items = larger;
+        head = 0;
+    }
+
+    /**
+     * Rounds the specified number up to a power of two.
+     *
+     * @param n a positive number, at most 2<sup>30</sup>.
+     * @return the smallest power of two that is not less than <tt>n</tt>.
+     */
+    private static int powerOfTwo(int n) {
+        if (n > 1 << 30) {
+            throw new IllegalArgumentException(String.valueOf(n));
+        }
+        return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+}
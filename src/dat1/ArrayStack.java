@@ -0,0 +1,186 @@
+package dat1;
+
+import java.util.HashMap;
+
+/**
+ * The <tt>ArrayStack</tt> class implements a last-in first-out (LIFO) data
+ * structure with the same interface as {@link Stack}, on top of an array
+ * instead of a {@link LinkedList}.
+ * <p>
+ * The items are stored at the start of an array, with the top of the
+ * <tt>ArrayStack</tt> at the highest occupied index. When the array fills
+ * up, it is replaced by one that is twice as large. <tt>push()</tt> and
+ * <tt>pop()</tt> therefore do not allocate a node per item.
+ * <p>
+ * An <tt>ArrayStack</tt> can optionally keep an index that counts how many
+ * times each item occurs on it. With the index, <tt>contains()</tt> takes
+ * O(1) expected time instead of scanning the whole stack, which makes it
+ * suitable for detecting cycles during a depth-first walk:
+ * <pre>
+ *   ArrayStack&lt;Node&gt; path = new ArrayStack&lt;Node&gt;(16, true);
+ *   ...
+ *   if (path.contains(next)) { // O(1)
+ *     // found a cycle
+ *   }
+ *   path.push(next);
+ * </pre>
+ * The index looks items up by their <tt>hashCode()</tt> and
+ * <tt>equals()</tt> methods, and costs a {@link HashMap} entry per distinct
+ * item on the stack.
+ *
+ * @author K. Atas
+ */
+public class ArrayStack<E> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] items;
+    private int size;
+    private final HashMap<Object, int[]> counts;
+
+    /**
+     * Constructs a new <tt>ArrayStack</tt> without an index.
+     */
+    public ArrayStack() {
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Constructs a new <tt>ArrayStack</tt>.
+     *
+     * @param capacity the number of items the <tt>ArrayStack</tt> can hold
+     *  before it needs to grow.
+     * @param indexed whether to keep an index of the items, so that
+     *  <tt>contains()</tt> takes O(1) time.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is negative.
+     */
+    public ArrayStack(int capacity, boolean indexed) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(String.valueOf(capacity));
+        }
+        items = new Object[Math.max(capacity, 1)];
+        counts = indexed ? new HashMap<Object, int[]>() : null;
+    }
+
+    /**
+     * Gets the size of this <tt>ArrayStack</tt>.
+     *
+     * @return the number of items in this <tt>ArrayStack</tt>.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines whether this <tt>ArrayStack</tt> is empty.
+     *
+     * @return <tt>true</tt> if this <tt>ArrayStack</tt> is empty,
+     *  <tt>false</tt> otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Determines whether this <tt>ArrayStack</tt> contains the specified item.
+     * Takes O(1) expected time if the <tt>ArrayStack</tt> is indexed, and
+     * O(n) time otherwise.
+     *
+     * @param item the item to look for.
+     * @return <tt>true</tt> if this <tt>ArrayStack</tt> contains the specified
+     *  item, <tt>false</tt> otherwise.
+     */
+    public boolean contains(E item) {
+        if (counts != null) {
+            return counts.containsKey(item);
+        }
+        for (int i = size - 1; i >= 0; i--) { // recent items are likelier
+            if (item == null ? items[i] == null : item.equals(items[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the item at the top of this <tt>ArrayStack</tt> without
+     * removing it.
+     *
+     * @return the item at the top of this <tt>ArrayStack</tt>.
+     * @throws StackEmptyException if the <tt>ArrayStack</tt> is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (isEmpty()) {
+            throw new StackEmptyException();
+        }
+        return (E)items[size - 1];
+    }
+
+    /**
+     * Removes and returns the item at the top of this <tt>ArrayStack</tt>.
+     *
+     * @return the item at the top of this <tt>ArrayStack</tt>.
+     * @throws StackEmptyException if the <tt>ArrayStack</tt> is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E pop() {
+        if (isEmpty()) {
+            throw new StackEmptyException();
+        }
+        E item = (E)items[--size];
+        items[size] = null; // let go of the item
+        if (counts != null) {
+            int[] count = counts.get(item);
+            if (--count[0] == 0) {
+                counts.remove(item);
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Adds the specified item to the top of this <tt>ArrayStack</tt>.
+     *
+     * @param item the item to push onto this <tt>ArrayStack</tt>.
+     */
+    public void push(E item) {
+        if (size == items.length) {
+            grow();
+        }
+        items[size++] = item;
+        if (counts != null) {
+            int[] count = counts.get(item);
+            if (count == null) {
+                counts.put(item, new int[] { 1 });
+            } else {
+                count[0]++;
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of this <tt>ArrayStack</tt>.
+     */
+    public String toString() {
+        StringBuffer str = new StringBuffer();
+        for (int i = 0; i < size; i++) {
+            if (i != 0) {
+                str.append(", ");
+            }
+            str.append(items[i]);
+        }
+        return String.format("[%s]", str);
+    }
+
+    /**
+     * Replaces the array by one that is twice as large.
+     */
+    private void grow() {
+        if (items.length > Integer.MAX_VALUE >> 1) {
+            throw new IllegalStateException("ArrayStack is too large");
+        }
+        Object[] larger = new Object[items.length << 1];
+        System.arraycopy(items, 0, larger, 0, size);
+        items = larger;
+    }
+}
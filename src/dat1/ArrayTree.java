@@ -0,0 +1,203 @@
+package dat1;
+
+import java.util.Arrays;
+
+/**
+ * An ordered key-value map with the same interface as {@link BinaryTree},
+ * whose nodes are stored in parallel arrays instead of in separate
+ * {@link TreeNode} objects.
+ * <p>
+ * Each node is identified by an index into those arrays, and links to its
+ * children by their indices. The two child indices and the level of a node
+ * are stored next to each other in a single <tt>int[]</tt>, so that a step
+ * down the tree reads one cache line for the links besides the key. Index
+ * zero is reserved for a sentinel node that stands in for missing children.
+ * The tree is kept balanced as an AA tree (a simplified red-black tree in
+ * which only right children may be red), so its height never exceeds
+ * 2&middot;log<sub>2</sub>(n + 1).
+ * <p>
+ * Compared to a <tt>BinaryTree</tt>, an <tt>ArrayTree</tt> allocates just a
+ * handful of arrays rather than one object per key-value pair. This lowers
+ * the memory footprint and garbage collection overhead, and keeps nodes that
+ * were added close together in time close together in memory. Adding a key
+ * only allocates when the arrays have to grow, and the slots of removed nodes
+ * are reused.
+ *
+ * @author K. Atas
+ */
+public class ArrayTree<K extends Comparable<K>, V>
+        extends AbstractArrayTree<V> {
+    private K[] keys;
+    private K key;
+
+    /**
+     * Constructs a new <tt>ArrayTree</tt>.
+     */
+    public ArrayTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new <tt>ArrayTree</tt> with room for the specified number
+     * of key-value pairs before its arrays have to grow.
+     *
+     * @param capacity the initial capacity.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is negative.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public ArrayTree(int capacity) {
+        super(capacity);
+        keys = (K[])new Comparable[capacity + 1];
+    }
+
+    /**
+     * Adds a new key-value pair to this <tt>ArrayTree</tt>. If <tt>key</tt>
+     * identifies an existing mapping, the value is replaced.
+     *
+     * @param key the lookup key.
+     * @param value the value to associate with <tt>key</tt>.
+     * @return the value that was previously associated with <tt>key</tt>,
+     *  otherwise <tt>null</tt>.
+     */
+    public V add(K key, V value) {
+        this.key = key;
+        V oldValue = insert(value);
+        this.key = null;
+        return oldValue;
+    }
+
+    /**
+     * Gets the value associated with the specified key.
+     *
+     * @param key the lookup key.
+     * @return the value that <tt>key</tt> maps to.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public V get(K key) {
+        return values[findNode(key)];
+    }
+
+    /**
+     * Replaces the value associated with the specified key by a new value.
+     *
+     * @param key the lookup key.
+     * @param value a new value to associate with <tt>key</tt>.
+     * @return the previous value.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public V set(K key, V value) {
+        int node = findNode(key);
+        V oldValue = values[node];
+        values[node] = value;
+        return oldValue;
+    }
+
+    /**
+     * Removes a key and its associated value from this <tt>ArrayTree</tt>.
+     *
+     * @param key the lookup key.
+     * @return the value that was removed.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public V remove(K key) {
+        V value = values[findNode(key)];
+        this.key = key;
+        delete();
+        this.key = null;
+        return value;
+    }
+
+    /**
+     * Has the specified {@link TreeTraverser} traverse this
+     * <tt>ArrayTree</tt>.
+     * <p>
+     * Because a <tt>TreeTraverser</tt> works on {@link TreeNode} objects,
+     * this method first builds a temporary copy of this tree out of
+     * <tt>TreeNode</tt>s, with the same shape. Use {@link #asList()} if only
+     * the values are needed.
+     *
+     * @param traverser will traverse this <tt>ArrayTree</tt> node by node.
+     */
+    public void traverse(TreeTraverser traverser) {
+        traverser.traverse(toTreeNode(root));
+    }
+
+    int compareAt(int node) {
+        return compare(key, keys[node]);
+    }
+
+    void storeKey(int node) {
+        keys[node] = key;
+    }
+
+    void copyKey(int from, int to) {
+        keys[to] = keys[from];
+    }
+
+    void resizeKeys(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    void clearKey(int node) {
+        keys[node] = null;
+    }
+
+    /**
+     * Finds the index of the node with the specified lookup key.
+     *
+     * @param key the lookup key.
+     * @return the index of the node.
+     * @throws NoSuchKeyException if there is no such node in this
+     *  <tt>ArrayTree</tt>.
+     */
+    private int findNode(K key) {
+        int node = root;
+        while (node != NIL) {
+            int sortOrder = compare(key, keys[node]);
+            if (sortOrder < 0) {
+                node = left(node);
+            } else if (sortOrder > 0) {
+                node = right(node);
+            } else {
+                return node;
+            }
+        }
+        throw new NoSuchKeyException(String.valueOf(key));
+    }
+
+    /**
+     * Copies the subtree rooted at <tt>node</tt> into {@link TreeNode}s.
+     *
+     * @param node the root of the subtree.
+     * @return the root of the copy, or <tt>null</tt> if the subtree is empty.
+     */
+    private TreeNode<K, V> toTreeNode(int node) {
+        if (node == NIL) {
+            return null;
+        }
+        TreeNode<K, V> treeNode = new TreeNode<K, V>(keys[node], values[node]);
+        treeNode.setLeftChild(toTreeNode(left(node)));
+        treeNode.setRightChild(toTreeNode(right(node)));
+        treeNode.updateSubtreeSize();
+        return treeNode;
+    }
+
+    /**
+     * Compares the specified lookup keys <tt>x</tt> and <tt>y</tt> for order.
+     *
+     * @param x the first key.
+     * @param y the second key.
+     * @return a negative integer, zero, or a positive integer as <tt>x</tt> is
+     *  less than, equal to, or greater than <tt>y</tt>.
+     * @see Comparable#compareTo(T)
+     */
+    private int compare(K x, K y) {
+        if (x == null || y == null) { // handle null keys
+            if (x == y) { // both null
+                return 0; // two nulls are equal
+            }
+            return x == null ? -1 : 1; // null < anything else
+        }
+        return x.compareTo(y);
+    }
+}
@@ -1,5 +1,15 @@
 package dat1;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * A data structure consisting of nodes that can each have either zero, one, 
  * or at most, two children (child nodes). The topmost node is called the root 
@@ -9,12 +19,28 @@ package dat1;
  * The <tt>BinaryTree</tt> associates a value with a lookup key in its 
  * <tt>add()</tt> method. This key-value mapping can later be retrieved, 
  * changed or removed by specifying the lookup key to the relevant method. 
+ * <p>
+ * A <tt>BinaryTree</tt> does not balance itself. Keys that are added in 
+ * (nearly) sorted order make it degenerate into what is effectively a linked 
+ * list. Use a {@link RedBlackTree} if the insertion order cannot be 
+ * controlled, or an {@link AVLTree} if lookups far outnumber updates.
+ * Alternatively, a degenerated <tt>BinaryTree</tt> can be fixed in place 
+ * with <tt>rebalance()</tt>, or made to fix itself as it grows with 
+ * <tt>setAutoRebalance()</tt>.
+ * <p>
+ * To find out why lookups are slow, call <tt>enableMetrics()</tt>. The 
+ * {@link Metrics} show how deep the tree has grown, how long the search 
+ * paths are, and how many comparisons each search takes.
  * 
  * @author K. Atas 
  */
 public class BinaryTree<K extends Comparable<K>, V> {
     private TreeNode<K, V> root;
     private int size;
+    private Metrics metrics;
+    private double rebalanceFactor;
+    
+    private static final double LOG_2 = Math.log(2);
     
     /**
      * Constructs a new <tt>BinaryTree</tt>.
@@ -24,6 +50,111 @@ public class BinaryTree<K extends Comparable<K>, V> {
         size = 0;
     }
     
+    /**
+     * Builds a perfectly balanced <tt>BinaryTree</tt> out of the specified 
+     * key-value pairs in O(n) time. The keys must be in strictly ascending 
+     * order.
+     * 
+     * @param keys the lookup keys, in ascending order.
+     * @param values the values to associate with the corresponding keys.
+     * @return a new <tt>BinaryTree</tt> containing the key-value pairs.
+     * @throws IllegalArgumentException if the keys are not in strictly 
+     *  ascending order, or if there are not as many keys as values.
+     */
+    public static <K extends Comparable<K>, V> BinaryTree<K, V> fromSorted(
+            K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException(String.format(
+                "%d keys, %d values", keys.length, values.length));
+        }
+        return fromSorted(Arrays.asList(keys).iterator(), 
+            Arrays.asList(values).iterator(), keys.length);
+    }
+    
+    /**
+     * Builds a perfectly balanced <tt>BinaryTree</tt> out of the specified 
+     * key-value pairs in O(n) time. The keys must be in strictly ascending 
+     * order.
+     * 
+     * @param keys the lookup keys, in ascending order.
+     * @param values the values to associate with the corresponding keys.
+     * @return a new <tt>BinaryTree</tt> containing the key-value pairs.
+     * @throws IllegalArgumentException if the keys are not in strictly 
+     *  ascending order, or if there are not as many keys as values.
+     */
+    public static <K extends Comparable<K>, V> BinaryTree<K, V> fromSorted(
+            LinkedList<K> keys, LinkedList<V> values) {
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException(String.format(
+                "%d keys, %d values", keys.size(), values.size()));
+        }
+        return fromSorted(keys.iterator(), values.iterator(), keys.size());
+    }
+    
+    /**
+     * Builds a perfectly balanced <tt>BinaryTree</tt> out of the first 
+     * <tt>size</tt> key-value pairs that the specified iterators return, in 
+     * O(n) time. The keys must be in strictly ascending order.
+     * 
+     * @param keys returns the lookup keys, in ascending order.
+     * @param values returns the values to associate with the corresponding 
+     *  keys.
+     * @param size the number of key-value pairs to take from the iterators.
+     * @return a new <tt>BinaryTree</tt> containing the key-value pairs.
+     * @throws IllegalArgumentException if <tt>size</tt> is negative, if the 
+     *  keys are not in strictly ascending order, or if either iterator 
+     *  returns fewer than <tt>size</tt> items.
+     */
+    public static <K extends Comparable<K>, V> BinaryTree<K, V> fromSorted(
+            Iterator<? extends K> keys, Iterator<? extends V> values, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException(String.valueOf(size));
+        }
+        BinaryTree<K, V> tree = new BinaryTree<K, V>();
+        tree.root = new SortedBuilder<K, V>(tree, keys, values).build(size);
+        tree.size = size;
+        return tree;
+    }
+    
+    /**
+     * Builds a perfectly balanced <tt>BinaryTree</tt> out of the specified 
+     * key-value pairs, which may be in any order. The pairs are first sorted
+     * by key using a merge sort, after which the tree is built as if by 
+     * {@link #fromSorted(Object[], Object[])}. This takes O(n log n) time.
+     * <p>
+     * If a key occurs more than once, the value that comes last is kept, as 
+     * if the pairs had been added one by one.
+     * 
+     * @param keys the lookup keys.
+     * @param values the values to associate with the corresponding keys.
+     * @return a new <tt>BinaryTree</tt> containing the key-value pairs.
+     * @throws IllegalArgumentException if there are not as many keys as 
+     *  values.
+     */
+    public static <K extends Comparable<K>, V> BinaryTree<K, V> fromUnsorted(
+            K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException(String.format(
+                "%d keys, %d values", keys.length, values.length));
+        }
+        BinaryTree<K, V> tree = new BinaryTree<K, V>();
+        K[] sortedKeys = keys.clone();
+        V[] sortedValues = values.clone();
+        tree.mergeSort(sortedKeys, sortedValues);
+        int size = 0;
+        for (int i = 0; i < sortedKeys.length; i++) {
+            if (size > 0 && tree.compare(sortedKeys[size - 1], sortedKeys[i]) == 0) {
+                sortedValues[size - 1] = sortedValues[i]; // last one wins
+            } else {
+                sortedKeys[size] = sortedKeys[i];
+                sortedValues[size] = sortedValues[i];
+                size++;
+            }
+        }
+        return fromSorted(Arrays.asList(sortedKeys).iterator(), 
+            Arrays.asList(sortedValues).iterator(), size);
+    }
+    
     /**
      * Gets the size of this <tt>BinaryTree</tt>.
      * 
@@ -44,31 +175,50 @@ public class BinaryTree<K extends Comparable<K>, V> {
      */
     public V add(K key, V value) {
         if (root == null) {
-            root = new TreeNode<K, V>(key, value);
+            root = newNode(key, value);
             size++;
+            recordSearch(0);
+            recordInsertion(1);
+            afterInsertion(root);
             return null;
         }
         TreeNode<K, V> node = root;
+        int depth = 1;
         while (true) {
             int sortOrder = compare(key, node.getKey());
             if (sortOrder < 0) {
                 if (node.getLeftChild() != null) {
                     node = node.getLeftChild();
+                    depth++;
                     continue;
                 }
-                node.setLeftChild(new TreeNode<K, V>(key, value));
+                TreeNode<K, V> child = newNode(key, value);
+                node.setLeftChild(child);
                 size++;
+                recordSearch(depth);
+                recordInsertion(depth + 1);
+                updateSubtreeSizes(node);
+                afterInsertion(child);
+                rebuildIfTooDeep(child, depth + 1);
                 return null;
             }
             if (sortOrder > 0) {
                 if (node.getRightChild() != null) {
                     node = node.getRightChild();
+                    depth++;
                     continue;
                 }
-                node.setRightChild(new TreeNode<K, V>(key, value));
+                TreeNode<K, V> child = newNode(key, value);
+                node.setRightChild(child);
                 size++;
+                recordSearch(depth);
+                recordInsertion(depth + 1);
+                updateSubtreeSizes(node);
+                afterInsertion(child);
+                rebuildIfTooDeep(child, depth + 1);
                 return null;
             }
+            recordSearch(depth);
             V oldValue = node.getValue();
             node.setValue(value);
             return oldValue;
@@ -110,21 +260,194 @@ public class BinaryTree<K extends Comparable<K>, V> {
      */
     public V remove(K key) {
         TreeNode<K, V> node = findNode(key);
-        switch (node.countChildren()) {
-            case 0:
-                removeLeafNode(node);
-                break;
-            case 1:
-                removeNodeWithOneChild(node);
-                break;
-            case 2:
-                removeNodeWithTwoChildren(node);
-                break;
-        }
+        removeNode(node);
         size--;
+        if (size == 0 && metrics != null) {
+            metrics.resetHeight(0);
+        }
+        node.setParent(null); // let go of the tree
+        node.setLeftChild(null);
+        node.setRightChild(null);
         return node.getValue();
     }
 
+    /**
+     * Gets the smallest key in this <tt>BinaryTree</tt>.
+     * 
+     * @return the first key in ascending order.
+     * @throws NoSuchKeyException if this <tt>BinaryTree</tt> is empty.
+     */
+    public K first() {
+        if (root == null) {
+            throw new NoSuchKeyException();
+        }
+        TreeNode<K, V> node = root;
+        while (node.getLeftChild() != null) {
+            node = node.getLeftChild();
+        }
+        return node.getKey();
+    }
+    
+    /**
+     * Gets the greatest key in this <tt>BinaryTree</tt>.
+     * 
+     * @return the last key in ascending order.
+     * @throws NoSuchKeyException if this <tt>BinaryTree</tt> is empty.
+     */
+    public K last() {
+        if (root == null) {
+            throw new NoSuchKeyException();
+        }
+        TreeNode<K, V> node = root;
+        while (node.getRightChild() != null) {
+            node = node.getRightChild();
+        }
+        return node.getKey();
+    }
+    
+    /**
+     * Gets the greatest key that is less than or equal to the specified key.
+     * 
+     * @param key the key to search for.
+     * @return the greatest key <tt>&lt;= key</tt>.
+     * @throws NoSuchKeyException if there is no such key.
+     */
+    public K floor(K key) {
+        return keyOf(floorNode(key, true), key);
+    }
+    
+    /**
+     * Gets the smallest key that is greater than or equal to the specified 
+     * key.
+     * 
+     * @param key the key to search for.
+     * @return the smallest key <tt>&gt;= key</tt>.
+     * @throws NoSuchKeyException if there is no such key.
+     */
+    public K ceiling(K key) {
+        return keyOf(ceilingNode(key, true), key);
+    }
+    
+    /**
+     * Gets the greatest key that is strictly less than the specified key.
+     * 
+     * @param key the key to search for.
+     * @return the greatest key <tt>&lt; key</tt>.
+     * @throws NoSuchKeyException if there is no such key.
+     */
+    public K lower(K key) {
+        return keyOf(floorNode(key, false), key);
+    }
+    
+    /**
+     * Gets the smallest key that is strictly greater than the specified key.
+     * 
+     * @param key the key to search for.
+     * @return the smallest key <tt>&gt; key</tt>.
+     * @throws NoSuchKeyException if there is no such key.
+     */
+    public K higher(K key) {
+        return keyOf(ceilingNode(key, false), key);
+    }
+    
+    /**
+     * Returns a view of the nodes in this <tt>BinaryTree</tt> whose keys lie
+     * in the range from <tt>from</tt>, inclusive, to <tt>to</tt>, exclusive. 
+     * The nodes are returned in ascending order of their keys.
+     * <p>
+     * The view is lazy: nothing is looked up until iteration begins. The 
+     * first node is then found by descending from the root, and each next 
+     * node by following the links to its in-order successor. Iterating over 
+     * <tt>k</tt> nodes therefore takes O(h + k) time, where <tt>h</tt> is the
+     * height of the tree, and only the relevant subtrees are visited. The 
+     * view does not support changes to the tree during iteration.
+     * 
+     * @param from the lowest key in the range (inclusive).
+     * @param to the key that ends the range (exclusive).
+     * @return an {@link Iterable} over the {@link TreeNode}s in the range.
+     */
+    public Iterable<TreeNode<K, V>> range(final K from, final K to) {
+        return new Iterable<TreeNode<K, V>>() {
+            public Iterator<TreeNode<K, V>> iterator() {
+                return new RangeIterator(ceilingNode(from, true), to);
+            }
+        };
+    }
+    
+    /**
+     * Gets the rank of the specified key, which is the number of keys in this
+     * <tt>BinaryTree</tt> that are less than it. The key itself need not be 
+     * present. Takes O(h) time, where <tt>h</tt> is the height of the tree.
+     * 
+     * @param key the key to rank.
+     * @return the number of keys <tt>&lt; key</tt>. If <tt>key</tt> is 
+     *  present, this is the zero-based offset of the key in ascending order.
+     */
+    public int rank(K key) {
+        int rank = 0;
+        TreeNode<K, V> node = root;
+        int depth = 0;
+        while (node != null) {
+            depth++;
+            int sortOrder = compare(key, node.getKey());
+            if (sortOrder < 0) {
+                node = node.getLeftChild();
+            } else {
+                rank += subtreeSize(node.getLeftChild());
+                if (sortOrder == 0) {
+                    break;
+                }
+                rank++;
+                node = node.getRightChild();
+            }
+        }
+        recordSearch(depth);
+        return rank;
+    }
+    
+    /**
+     * Gets the key at the specified offset in ascending order. Takes O(h) 
+     * time, where <tt>h</tt> is the height of the tree.
+     * 
+     * @param index the zero-based offset of the key.
+     * @return the key for which <tt>rank(key) == index</tt>.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or 
+     *  <tt>index >= size()</tt>.
+     */
+    public K select(int index) {
+        return selectNode(index).getKey();
+    }
+    
+    /**
+     * Returns a view of the nodes in this <tt>BinaryTree</tt> whose offsets 
+     * in ascending order lie in the range from <tt>from</tt>, inclusive, to 
+     * <tt>to</tt>, exclusive.
+     * <p>
+     * Like {@link #range(Comparable, Comparable)}, the view is lazy. The 
+     * first node is found by its offset in O(h) time, after which the 
+     * in-order successor links are followed. Iterating over <tt>k</tt> nodes
+     * therefore takes O(h + k) time. The view does not support changes to 
+     * the tree during iteration.
+     * 
+     * @param from the offset of the first node (inclusive).
+     * @param to the offset that ends the slice (exclusive).
+     * @return an {@link Iterable} over the {@link TreeNode}s in the slice.
+     * @throws IndexOutOfBoundsException if <tt>from < 0</tt>, 
+     *  <tt>to > size()</tt> or <tt>from > to</tt>.
+     */
+    public Iterable<TreeNode<K, V>> slice(final int from, final int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException(String.format(
+                "from: %d, to: %d, size: %d", from, to, size));
+        }
+        return new Iterable<TreeNode<K, V>>() {
+            public Iterator<TreeNode<K, V>> iterator() {
+                return new SliceIterator<K, V>(
+                    from == to ? null : selectNode(from), to - from);
+            }
+        };
+    }
+    
     /**
      * Has the specified {@link TreeTraverser} traverse this 
      * <tt>BinaryTree</tt>. 
@@ -135,6 +458,93 @@ public class BinaryTree<K extends Comparable<K>, V> {
         traverser.traverse(root);
     }
     
+    /**
+     * Computes a single result for this <tt>BinaryTree</tt>, by having the 
+     * specified {@link TreeNodeReducer} combine the results for the subtrees
+     * of each node. Large trees are reduced on multiple threads at once.
+     * 
+     * @param reducer computes the result for each subtree.
+     * @return the result for the whole tree, or <tt>reducer.identity()</tt> 
+     *  if it is empty.
+     * @see TreeTraverser#reduce(TreeNode, TreeNodeReducer)
+     */
+    public <R> R reduce(TreeNodeReducer<R> reducer) {
+        return TreeTraverser.reduce(root, reducer);
+    }
+    
+    /**
+     * Returns a view of the keys in this <tt>BinaryTree</tt>, in ascending 
+     * order.
+     * <p>
+     * Like the other views, it walks the {@link TreeNode}s directly instead 
+     * of copying them into a list. Its {@link Spliterator} is sized and 
+     * sorted, and splits by offset, so that it can feed a parallel 
+     * {@link Stream}. The view does not support changes to the tree during 
+     * iteration.
+     * 
+     * @return an {@link Iterable} over the keys.
+     */
+    public Iterable<K> keys() {
+        return new Iterable<K>() {
+            public Iterator<K> iterator() {
+                return Spliterators.iterator(spliterator());
+            }
+            
+            public Spliterator<K> spliterator() {
+                return new KeySpliterator(0, size, null);
+            }
+        };
+    }
+    
+    /**
+     * Returns a view of the values in this <tt>BinaryTree</tt>, in ascending
+     * order of their keys. See {@link #keys()}.
+     * 
+     * @return an {@link Iterable} over the values.
+     */
+    public Iterable<V> values() {
+        return new Iterable<V>() {
+            public Iterator<V> iterator() {
+                return Spliterators.iterator(spliterator());
+            }
+            
+            public Spliterator<V> spliterator() {
+                return new ValueSpliterator(0, size, null);
+            }
+        };
+    }
+    
+    /**
+     * Returns a view of the nodes in this <tt>BinaryTree</tt>, in ascending 
+     * order of their keys. See {@link #keys()}.
+     * 
+     * @return an {@link Iterable} over the {@link TreeNode}s.
+     */
+    public Iterable<TreeNode<K, V>> entries() {
+        return new Iterable<TreeNode<K, V>>() {
+            public Iterator<TreeNode<K, V>> iterator() {
+                return Spliterators.iterator(spliterator());
+            }
+            
+            public Spliterator<TreeNode<K, V>> spliterator() {
+                return new EntrySpliterator(0, size, null);
+            }
+        };
+    }
+    
+    /**
+     * Returns a sequential {@link Stream} over the values in this 
+     * <tt>BinaryTree</tt>, in ascending order of their keys. Unlike 
+     * <tt>asList()</tt>, this does not copy the values. Call 
+     * <tt>parallel()</tt> on the stream to have it split the tree between 
+     * threads.
+     * 
+     * @return a {@link Stream} over the values.
+     */
+    public Stream<V> stream() {
+        return StreamSupport.stream(values().spliterator(), false);
+    }
+    
     /**
      * Returns the contents of this <tt>BinaryTree</tt> as a {@link LinkedList}.
      * 
@@ -154,6 +564,103 @@ public class BinaryTree<K extends Comparable<K>, V> {
         return list;
     }
     
+    /**
+     * Gets the height of this <tt>BinaryTree</tt>: the number of nodes on the
+     * longest path from the root node down to a leaf. Takes O(n) time, on 
+     * the calling thread.
+     * 
+     * @return the height, or zero if this <tt>BinaryTree</tt> is empty.
+     */
+    public int height() {
+        return height(false);
+    }
+    
+    /**
+     * Determines whether this <tt>BinaryTree</tt> is height-balanced: 
+     * whether, for every node, the heights of its left and right subtrees 
+     * differ by at most one. Takes O(n) time, on the calling thread.
+     * 
+     * @return <tt>true</tt> if this <tt>BinaryTree</tt> is height-balanced, 
+     *  <tt>false</tt> otherwise.
+     */
+    public boolean isBalanced() {
+        return height(true) >= 0;
+    }
+    
+    /**
+     * Reshapes this <tt>BinaryTree</tt> into one of minimal height, 
+     * <tt>ceil(log<sub>2</sub>(n + 1))</tt>, in which every level but the 
+     * lowest is full. Uses the Day-Stout-Warren algorithm, which rotates 
+     * the existing {@link TreeNode}s into place in O(n) time, without 
+     * allocating any memory. Meant to fix a degenerated tree in a quiet 
+     * period.
+     * <p>
+     * A self-balancing subclass keeps its own balance, so there this method 
+     * does nothing.
+     */
+    public void rebalance() {
+        if (root != null) {
+            rebuild(root);
+        }
+        if (metrics != null) {
+            metrics.resetHeight(height());
+        }
+    }
+    
+    /**
+     * Makes this <tt>BinaryTree</tt> rebalance itself whenever an insertion
+     * makes it deeper than <tt>factor&middot;log<sub>2</sub>(size())</tt>. 
+     * Only the lowest subtree that is out of balance is rebuilt, so that 
+     * even keys added in sorted order take O(log n) amortized time. The 
+     * lower the factor, the shallower the tree, and the more often subtrees
+     * are rebuilt. A factor of 2 is a reasonable trade-off. Off by default.
+     * 
+     * @param factor the factor <tt>c</tt> in 
+     *  <tt>c&middot;log<sub>2</sub>(size())</tt>, or zero to turn automatic 
+     *  rebalancing off.
+     * @throws IllegalArgumentException if <tt>factor</tt> is neither zero 
+     *  nor greater than one.
+     */
+    public void setAutoRebalance(double factor) {
+        if (factor != 0 && !(factor > 1)) {
+            throw new IllegalArgumentException(String.valueOf(factor));
+        }
+        rebalanceFactor = factor;
+    }
+    
+    /**
+     * Starts counting the searches, comparisons and node allocations of this
+     * <tt>BinaryTree</tt>, if it does not do so already. The {@link Metrics}
+     * also keep track of the height of the tree, which is measured once 
+     * here, in O(n) time, and from then on raised by deeper insertions.
+     * 
+     * @return the {@link Metrics} of this <tt>BinaryTree</tt>.
+     */
+    public Metrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new Metrics();
+            metrics.resetHeight(height());
+        }
+        return metrics;
+    }
+    
+    /**
+     * Stops counting, and discards the {@link Metrics} of this 
+     * <tt>BinaryTree</tt>.
+     */
+    public void disableMetrics() {
+        metrics = null;
+    }
+    
+    /**
+     * Gets the {@link Metrics} of this <tt>BinaryTree</tt>.
+     * 
+     * @return the {@link Metrics}, or <tt>null</tt> if they are not enabled.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
     /**
      * Returns a string representation of this <tt>BinaryTree</tt>.
      */
@@ -173,70 +680,168 @@ public class BinaryTree<K extends Comparable<K>, V> {
     }
     
     /**
-     * Removes a {@link TreeNode} with no children.
+     * Creates the {@link TreeNode} that will hold a newly added key-value 
+     * pair. Subclasses that need to store additional information in their 
+     * nodes may override this method to return a subclass of 
+     * <tt>TreeNode</tt>.
      * 
-     * @param node a {@link TreeNode} without children.
+     * @param key the lookup key.
+     * @param value the value to associate with <tt>key</tt>.
+     * @return a new, unlinked {@link TreeNode}.
      */
-    private void removeLeafNode(TreeNode<K, V> node) {
-        if (node.getParent() != null) {
-            if (compare(node.getKey(), node.getParent().getKey()) < 0) {
-                node.getParent().setLeftChild(null);
-            } else {
-                node.getParent().setRightChild(null);
+    protected TreeNode<K, V> createNode(K key, V value) {
+        return new TreeNode<K, V>(key, value);
+    }
+    
+    /**
+     * Called after a new {@link TreeNode} has been linked into this 
+     * <tt>BinaryTree</tt>. Does nothing by default; self-balancing subclasses
+     * override it to restore their balance after an insertion.
+     * 
+     * @param node the {@link TreeNode} that was just inserted.
+     */
+    protected void afterInsertion(TreeNode<K, V> node) {
+    }
+    
+    /**
+     * Unlinks the specified {@link TreeNode} from this <tt>BinaryTree</tt>. 
+     * The nodes are relinked in place: a node with at most one child is 
+     * replaced by that child, and a node with two children by its in-order 
+     * successor, which keeps its identity. No nodes are copied. 
+     * Self-balancing subclasses may override this method to restore their 
+     * balance after the removal.
+     * 
+     * @param node the {@link TreeNode} to remove.
+     */
+    protected void removeNode(TreeNode<K, V> node) {
+        TreeNode<K, V> lowest;
+        if (node.getLeftChild() == null || node.getRightChild() == null) {
+            TreeNode<K, V> child = node.getLeftChild();
+            if (child == null) {
+                child = node.getRightChild();
             }
+            lowest = node.getParent();
+            replace(node, child);
         } else {
-            root = null;
+            TreeNode<K, V> successor = node.getRightChild();
+            while (successor.getLeftChild() != null) {
+                successor = successor.getLeftChild();
+            }
+            if (successor.getParent() == node) {
+                lowest = successor;
+            } else {
+                lowest = successor.getParent();
+                replace(successor, successor.getRightChild());
+                successor.setRightChild(node.getRightChild());
+            }
+            replace(node, successor);
+            successor.setLeftChild(node.getLeftChild());
         }
+        updateSubtreeSizes(lowest);
     }
     
     /**
-     * Removes a {@link TreeNode} with one, either left or right, child.
+     * Gets the root node of this <tt>BinaryTree</tt>.
      * 
-     * @param node a {@link TreeNode} with a single child.
+     * @return the root {@link TreeNode}. <tt>null</tt> if this 
+     *  <tt>BinaryTree</tt> is empty.
      */
-    private void removeNodeWithOneChild(TreeNode<K, V> node) {
-        TreeNode<K, V> child = node.getLeftChild();
-        if (child == null) {
-            child = node.getRightChild();
-        }
-        if (node.getParent() != null) {
-            if (compare(node.getKey(), node.getParent().getKey()) < 0) {
-                node.getParent().setLeftChild(child);
-            } else {
-                node.getParent().setRightChild(child);
+    protected TreeNode<K, V> getRoot() {
+        return root;
+    }
+    
+    /**
+     * Puts <tt>replacement</tt> in the position of <tt>node</tt>, by linking 
+     * it to the parent of <tt>node</tt>, or making it the root node if 
+     * <tt>node</tt> has no parent. The children of either node are left 
+     * untouched.
+     * 
+     * @param node the {@link TreeNode} to replace.
+     * @param replacement the {@link TreeNode} to replace it with. May be 
+     *  <tt>null</tt>.
+     */
+    protected void replace(TreeNode<K, V> node, TreeNode<K, V> replacement) {
+        TreeNode<K, V> parent = node.getParent();
+        if (parent == null) {
+            root = replacement;
+            if (replacement != null) {
+                replacement.setParent(null);
             }
+        } else if (parent.getLeftChild() == node) {
+            parent.setLeftChild(replacement);
         } else {
-            root = child.asRoot();
+            parent.setRightChild(replacement);
         }
     }
     
     /**
-     * Removes a {@link TreeNode} with two children.
+     * Rotates the subtree rooted at <tt>node</tt> to the left. The right 
+     * child of <tt>node</tt> takes its place, and <tt>node</tt> becomes its 
+     * left child.
      * 
-     * @param node a {@link TreeNode} with two children.
+     * @param node a {@link TreeNode} with a right child.
      */
-    private void removeNodeWithTwoChildren(TreeNode<K, V> node) {
-        TreeNode<K, V> successor = node.getRightChild();
-        int depth = 1;
-        while (successor.getLeftChild() != null) {
-            successor = successor.getLeftChild();
-            depth++;
-        }
-        if (depth > 1) {
-            successor.getParent().setLeftChild(successor.getRightChild());
-        }
-        successor.setLeftChild(node.getLeftChild());
-        if (depth > 1) {
-            successor.setRightChild(node.getRightChild());
+    protected void rotateLeft(TreeNode<K, V> node) {
+        TreeNode<K, V> pivot = node.getRightChild();
+        replace(node, pivot);
+        node.setRightChild(pivot.getLeftChild());
+        pivot.setLeftChild(node);
+        node.updateSubtreeSize();
+        pivot.updateSubtreeSize();
+    }
+    
+    /**
+     * Rotates the subtree rooted at <tt>node</tt> to the right. The left 
+     * child of <tt>node</tt> takes its place, and <tt>node</tt> becomes its 
+     * right child.
+     * 
+     * @param node a {@link TreeNode} with a left child.
+     */
+    protected void rotateRight(TreeNode<K, V> node) {
+        TreeNode<K, V> pivot = node.getLeftChild();
+        replace(node, pivot);
+        node.setLeftChild(pivot.getRightChild());
+        pivot.setRightChild(node);
+        node.updateSubtreeSize();
+        pivot.updateSubtreeSize();
+    }
+    
+    /**
+     * Recomputes the subtree sizes of <tt>node</tt> and all of its ancestors.
+     * Must be called after a node has been linked into or unlinked from the 
+     * subtree rooted at <tt>node</tt>.
+     * 
+     * @param node the lowest {@link TreeNode} whose subtree has changed. May
+     *  be <tt>null</tt>.
+     */
+    protected void updateSubtreeSizes(TreeNode<K, V> node) {
+        while (node != null) {
+            node.updateSubtreeSize();
+            node = node.getParent();
         }
-        if (node.getParent() != null) {
-            if (compare(node.getKey(), node.getParent().getKey()) < 0) {
-                node.getParent().setLeftChild(successor);
-            } else {
-                node.getParent().setRightChild(successor);
-            }
-        } else {
-            root = successor.asRoot();
+    }
+    
+    /**
+     * Reshapes the subtree rooted at <tt>node</tt> into one of minimal 
+     * height, by straightening it into a vine and then folding the vine up 
+     * with left rotations (the Day-Stout-Warren algorithm). Takes time in 
+     * proportion to the size of the subtree, and keeps the subtree sizes 
+     * up to date through the rotations. Self-balancing subclasses override 
+     * this method to do nothing, since it does not maintain their 
+     * invariants.
+     * 
+     * @param node the root of the subtree to rebuild.
+     */
+    protected void rebuild(TreeNode<K, V> node) {
+        TreeNode<K, V> parent = node.getParent();
+        boolean left = parent != null && parent.getLeftChild() == node;
+        int size = node.getSubtreeSize();
+        treeToVine(node);
+        int full = Integer.highestOneBit(size + 1) - 1; // 2^k - 1 nodes
+        compress(childOf(parent, left), size - full);
+        while (full > 1) {
+            full /= 2;
+            compress(childOf(parent, left), full);
         }
     }
     
@@ -248,9 +853,11 @@ public class BinaryTree<K extends Comparable<K>, V> {
      * @throws NoSuchKeyException if no such {@link TreeNode} is found in this 
      *  <tt>BinaryTree</tt>.
      */
-    private TreeNode<K, V> findNode(K key) {
+    protected TreeNode<K, V> findNode(K key) {
         TreeNode<K, V> node = root;
+        int depth = 0;
         while (node != null) {
+            depth++;
             int sortOrder = compare(key, node.getKey());
             if (sortOrder < 0) {
                 node = node.getLeftChild();
@@ -260,12 +867,310 @@ public class BinaryTree<K extends Comparable<K>, V> {
                 break;
             }
         }
+        recordSearch(depth);
         if (node == null) {
             throw new NoSuchKeyException(String.valueOf(key));
         }
         return node;
     }
     
+    /**
+     * Finds the {@link TreeNode} with the greatest key that is less than (or 
+     * equal to) the specified key.
+     * 
+     * @param key the key to search for.
+     * @param inclusive whether a node with a key equal to <tt>key</tt> 
+     *  qualifies.
+     * @return the {@link TreeNode} that was found, or <tt>null</tt> if there 
+     *  is no such node.
+     */
+    private TreeNode<K, V> floorNode(K key, boolean inclusive) {
+        TreeNode<K, V> node = root;
+        TreeNode<K, V> candidate = null;
+        int depth = 0;
+        while (node != null) {
+            depth++;
+            int sortOrder = compare(key, node.getKey());
+            if (sortOrder > 0 || (inclusive && sortOrder == 0)) {
+                candidate = node;
+                if (sortOrder == 0) {
+                    break;
+                }
+                node = node.getRightChild();
+            } else {
+                node = node.getLeftChild();
+            }
+        }
+        recordSearch(depth);
+        return candidate;
+    }
+    
+    /**
+     * Finds the {@link TreeNode} with the smallest key that is greater than 
+     * (or equal to) the specified key.
+     * 
+     * @param key the key to search for.
+     * @param inclusive whether a node with a key equal to <tt>key</tt> 
+     *  qualifies.
+     * @return the {@link TreeNode} that was found, or <tt>null</tt> if there 
+     *  is no such node.
+     */
+    private TreeNode<K, V> ceilingNode(K key, boolean inclusive) {
+        TreeNode<K, V> node = root;
+        TreeNode<K, V> candidate = null;
+        int depth = 0;
+        while (node != null) {
+            depth++;
+            int sortOrder = compare(key, node.getKey());
+            if (sortOrder < 0 || (inclusive && sortOrder == 0)) {
+                candidate = node;
+                if (sortOrder == 0) {
+                    break;
+                }
+                node = node.getLeftChild();
+            } else {
+                node = node.getRightChild();
+            }
+        }
+        recordSearch(depth);
+        return candidate;
+    }
+    
+    /**
+     * Finds the {@link TreeNode} at the specified offset in ascending order, 
+     * by using the subtree sizes to decide which way to descend.
+     * 
+     * @param index the zero-based offset of the node.
+     * @return the {@link TreeNode} at that offset.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or 
+     *  <tt>index >= size()</tt>.
+     */
+    private TreeNode<K, V> selectNode(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        TreeNode<K, V> node = root;
+        while (true) {
+            int leftSize = subtreeSize(node.getLeftChild());
+            if (index < leftSize) {
+                node = node.getLeftChild();
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.getRightChild();
+            } else {
+                return node;
+            }
+        }
+    }
+    
+    /**
+     * Gets the size of the subtree rooted at the specified node.
+     * 
+     * @param node a {@link TreeNode} or <tt>null</tt>.
+     * @return the subtree size of <tt>node</tt>, or zero if it is 
+     *  <tt>null</tt>.
+     */
+    private static int subtreeSize(TreeNode<?, ?> node) {
+        return node == null ? 0 : node.getSubtreeSize();
+    }
+    
+    /**
+     * Computes the height of this <tt>BinaryTree</tt> on the calling thread,
+     * by walking the nodes in post-order. The heights of the subtrees whose 
+     * parents have not been reached yet are kept on a stack, which never 
+     * holds more entries than the height of the tree. 
+     * 
+     * @param balanced whether to stop at the first node whose subtrees 
+     *  differ in height by more than one.
+     * @return the height, or -1 if <tt>balanced</tt> is <tt>true</tt> and 
+     *  this <tt>BinaryTree</tt> is not height-balanced.
+     */
+    private int height(boolean balanced) {
+        int[] heights = new int[16];
+        int top = 0;
+        Iterator<TreeNode<K, V>> nodes = TreeTraverser.postOrderIterator(root);
+        while (nodes.hasNext()) {
+            TreeNode<K, V> node = nodes.next();
+            int right = node.getRightChild() == null ? 0 : heights[--top];
+            int left = node.getLeftChild() == null ? 0 : heights[--top];
+            if (balanced && Math.abs(left - right) > 1) {
+                return -1;
+            }
+            if (top == heights.length) {
+                heights = Arrays.copyOf(heights, 2 * top);
+            }
+            heights[top++] = Math.max(left, right) + 1;
+        }
+        return top == 0 ? 0 : heights[0];
+    }
+    
+    /**
+     * Rebuilds the lowest ancestor of a newly inserted node that is out of 
+     * balance by weight, if automatic rebalancing is on and the node was 
+     * inserted too deep. An ancestor is out of balance if one of its 
+     * children holds more than <tt>2<sup>-1/c</sup></tt> of its subtree.
+     * Such an ancestor always exists when the node is deeper than 
+     * <tt>c&middot;log<sub>2</sub>(size())</tt>, and rebuilding it lowers 
+     * the node. Because the rebuilt subtree is often small, this costs 
+     * O(log n) amortized time per insertion.
+     * 
+     * @param node the {@link TreeNode} that was just inserted.
+     * @param depth the number of nodes on the path from the root node down 
+     *  to <tt>node</tt>.
+     */
+    private void rebuildIfTooDeep(TreeNode<K, V> node, int depth) {
+        if (rebalanceFactor == 0 
+                || depth <= rebalanceFactor * Math.log(size) / LOG_2) {
+            return;
+        }
+        double limit = Math.pow(2, -1 / rebalanceFactor);
+        for (TreeNode<K, V> parent = node.getParent(); parent != null; 
+                parent = parent.getParent()) {
+            if (node.getSubtreeSize() > limit * parent.getSubtreeSize()) {
+                rebuild(parent);
+                return;
+            }
+            node = parent;
+        }
+    }
+    
+    /**
+     * Straightens the subtree rooted at the specified node into a vine: a 
+     * chain of right children in ascending order, the first step of the 
+     * Day-Stout-Warren algorithm.
+     * 
+     * @param node the root of the subtree.
+     */
+    private void treeToVine(TreeNode<K, V> node) {
+        while (node != null) {
+            TreeNode<K, V> pivot = node.getLeftChild();
+            if (pivot != null) {
+                rotateRight(node);
+                node = pivot;
+            } else {
+                node = node.getRightChild();
+            }
+        }
+    }
+    
+    /**
+     * Rotates every other node along a vine to the left, starting at the 
+     * top, so that the nodes in between move down to become left children.
+     * 
+     * @param node the top of the vine.
+     * @param count the number of rotations.
+     */
+    private void compress(TreeNode<K, V> node, int count) {
+        for (int i = 0; i < count; i++) {
+            TreeNode<K, V> pivot = node.getRightChild();
+            rotateLeft(node);
+            node = pivot.getRightChild();
+        }
+    }
+    
+    /**
+     * Gets the child on the specified side of a {@link TreeNode}, or the 
+     * root node if the parent is <tt>null</tt>.
+     * 
+     * @param parent a {@link TreeNode} or <tt>null</tt>.
+     * @param left whether to get the left child.
+     * @return the child or root node.
+     */
+    private TreeNode<K, V> childOf(TreeNode<K, V> parent, boolean left) {
+        if (parent == null) {
+            return root;
+        }
+        return left ? parent.getLeftChild() : parent.getRightChild();
+    }
+    
+    /**
+     * Creates a new {@link TreeNode} by calling <tt>createNode()</tt>, and 
+     * counts the allocation if metrics are enabled.
+     * 
+     * @param key the lookup key.
+     * @param value the value to associate with <tt>key</tt>.
+     * @return a new, unlinked {@link TreeNode}.
+     */
+    private TreeNode<K, V> newNode(K key, V value) {
+        if (metrics != null) {
+            metrics.recordAllocation();
+        }
+        return createNode(key, value);
+    }
+    
+    /**
+     * Raises the height in the metrics to the depth of a new node, if 
+     * metrics are enabled.
+     * 
+     * @param depth the number of nodes on the path from the root node down 
+     *  to the new node.
+     */
+    private void recordInsertion(int depth) {
+        if (metrics != null) {
+            metrics.recordInsertion(depth);
+        }
+    }
+    
+    /**
+     * Counts a search from the root node down, if metrics are enabled.
+     * 
+     * @param depth the number of nodes that the search visited.
+     */
+    private void recordSearch(int depth) {
+        if (metrics != null) {
+            metrics.recordSearch(depth);
+        }
+    }
+    
+    /**
+     * Gets the key of a {@link TreeNode} that was searched for.
+     * 
+     * @param node the {@link TreeNode} that was found, or <tt>null</tt>.
+     * @param key the key that was searched for.
+     * @return the key of <tt>node</tt>.
+     * @throws NoSuchKeyException if <tt>node</tt> is <tt>null</tt>.
+     */
+    private K keyOf(TreeNode<K, V> node, K key) {
+        if (node == null) {
+            throw new NoSuchKeyException(String.valueOf(key));
+        }
+        return node.getKey();
+    }
+    
+    /**
+     * Sorts the specified keys in ascending order, and the values along with
+     * them, using a bottom-up merge sort. The sort is stable, so values with 
+     * equal keys keep their relative order.
+     * 
+     * @param keys the keys to sort.
+     * @param values the values to sort along with the keys.
+     */
+    private void mergeSort(K[] keys, V[] values) {
+        int n = keys.length;
+        K[] keyBuffer = keys.clone();
+        V[] valueBuffer = values.clone();
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, n);
+                System.arraycopy(keys, lo, keyBuffer, lo, hi - lo);
+                System.arraycopy(values, lo, valueBuffer, lo, hi - lo);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (j >= hi || (i < mid 
+                            && compare(keyBuffer[i], keyBuffer[j]) <= 0)) {
+                        keys[k] = keyBuffer[i];
+                        values[k] = valueBuffer[i++];
+                    } else {
+                        keys[k] = keyBuffer[j];
+                        values[k] = valueBuffer[j++];
+                    }
+                }
+            }
+        }
+    }
+    
     /**
      * Compares the specified lookup keys <tt>x</tt> and <tt>y</tt> for order.
      * 
@@ -275,7 +1180,10 @@ public class BinaryTree<K extends Comparable<K>, V> {
      *  less than, equal to, or greater than <tt>y</tt>.
      * @see Comparable#compareTo(T)
      */
-    private int compare(K x, K y) {
+    protected int compare(K x, K y) {
+        if (metrics != null) {
+            metrics.recordComparison();
+        }
         if (x == null || y == null) { // handle null keys
             if (x == y) { // both null
                 return 0; // two nulls are equal
@@ -284,4 +1192,299 @@ public class BinaryTree<K extends Comparable<K>, V> {
         }
         return ((Comparable<K>)x).compareTo(y);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Iterates in ascending order over the nodes from a starting node up to, 
+     * but not including, the first node whose key is not less than an upper 
+     * bound.
+     */
+    private class RangeIterator implements Iterator<TreeNode<K, V>> {
+        private final K to;
+        private TreeNode<K, V> next;
+        
+        /**
+         * Constructs a new <tt>RangeIterator</tt>.
+         * 
+         * @param first the first node in the range, or <tt>null</tt>.
+         * @param to the key that ends the range (exclusive).
+         */
+        RangeIterator(TreeNode<K, V> first, K to) {
+            this.to = to;
+            next = first;
+            if (next != null && compare(next.getKey(), to) >= 0) {
+                next = null;
+            }
+        }
+        
+        public boolean hasNext() {
+            return next != null;
+        }
+        
+        public TreeNode<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            TreeNode<K, V> node = next;
+            next = node.getSuccessor();
+            if (next != null && compare(next.getKey(), to) >= 0) {
+                next = null;
+            }
+            return node;
+        }
+        
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    /**
+     * Iterates in ascending order over a fixed number of nodes, starting at a
+     * given node.
+     */
+    private static class SliceIterator<K extends Comparable<K>, V> 
+            implements Iterator<TreeNode<K, V>> {
+        private TreeNode<K, V> next;
+        private int remaining;
+        
+        /**
+         * Constructs a new <tt>SliceIterator</tt>.
+         * 
+         * @param first the first node in the slice, or <tt>null</tt>.
+         * @param count the number of nodes in the slice.
+         */
+        SliceIterator(TreeNode<K, V> first, int count) {
+            next = first;
+            remaining = count;
+        }
+        
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+        
+        public TreeNode<K, V> next() {
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            TreeNode<K, V> node = next;
+            next = node.getSuccessor();
+            remaining--;
+            return node;
+        }
+        
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    /**
+     * Splits the nodes in this <tt>BinaryTree</tt> by their offsets in 
+     * ascending order. Covers the offsets from <tt>index</tt>, inclusive, to
+     * <tt>fence</tt>, exclusive. The node at <tt>index</tt> is found by its 
+     * offset when it is first needed, after which the in-order successor 
+     * links are followed. Subclasses decide which part of each node to 
+     * return.
+     */
+    private abstract class NodeSpliterator<T> implements Spliterator<T> {
+        private int index;
+        private final int fence;
+        private TreeNode<K, V> next;
+        
+        /**
+         * Constructs a new <tt>NodeSpliterator</tt>.
+         * 
+         * @param index the offset of the first node (inclusive).
+         * @param fence the offset that ends the range (exclusive).
+         * @param next the node at <tt>index</tt>, or <tt>null</tt> if it has 
+         *  not been looked up yet.
+         */
+        NodeSpliterator(int index, int fence, TreeNode<K, V> next) {
+            this.index = index;
+            this.fence = fence;
+            this.next = next;
+        }
+        
+        /**
+         * Gets the element to return for the specified node.
+         * 
+         * @param node a {@link TreeNode}.
+         * @return the element for <tt>node</tt>.
+         */
+        abstract T element(TreeNode<K, V> node);
+        
+        /**
+         * Creates a <tt>NodeSpliterator</tt> of the same kind over another 
+         * range of offsets.
+         */
+        abstract NodeSpliterator<T> create(int index, int fence, 
+            TreeNode<K, V> next);
+        
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (index >= fence) {
+                return false;
+            }
+            TreeNode<K, V> node = next != null ? next : selectNode(index);
+            next = ++index < fence ? node.getSuccessor() : null;
+            action.accept(element(node));
+            return true;
+        }
+        
+        /**
+         * Splits off the first half of the remaining offsets, which keeps 
+         * the node that was already found, if any.
+         */
+        public Spliterator<T> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Spliterator<T> prefix = create(index, mid, next);
+            index = mid;
+            next = null;
+            return prefix;
+        }
+        
+        public long estimateSize() {
+            return fence - index;
+        }
+        
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+    
+    /**
+     * Returns the keys of the nodes, which are sorted and distinct.
+     */
+    private class KeySpliterator extends NodeSpliterator<K> {
+        KeySpliterator(int index, int fence, TreeNode<K, V> next) {
+            super(index, fence, next);
+        }
+        
+        K element(TreeNode<K, V> node) {
+            return node.getKey();
+        }
+        
+        NodeSpliterator<K> create(int index, int fence, TreeNode<K, V> next) {
+            return new KeySpliterator(index, fence, next);
+        }
+        
+        public int characteristics() {
+            return super.characteristics() | SORTED | DISTINCT;
+        }
+        
+        /**
+         * Returns a {@link Comparator} that orders the keys the same way as
+         * this <tt>BinaryTree</tt>, including <tt>null</tt> keys.
+         */
+        public Comparator<? super K> getComparator() {
+            return new Comparator<K>() {
+                public int compare(K x, K y) {
+                    return BinaryTree.this.compare(x, y);
+                }
+            };
+        }
+    }
+    
+    /**
+     * Returns the values of the nodes.
+     */
+    private class ValueSpliterator extends NodeSpliterator<V> {
+        ValueSpliterator(int index, int fence, TreeNode<K, V> next) {
+            super(index, fence, next);
+        }
+        
+        V element(TreeNode<K, V> node) {
+            return node.getValue();
+        }
+        
+        NodeSpliterator<V> create(int index, int fence, TreeNode<K, V> next) {
+            return new ValueSpliterator(index, fence, next);
+        }
+    }
+    
+    /**
+     * Returns the nodes themselves, which are distinct and never 
+     * <tt>null</tt>.
+     */
+    private class EntrySpliterator extends NodeSpliterator<TreeNode<K, V>> {
+        EntrySpliterator(int index, int fence, TreeNode<K, V> next) {
+            super(index, fence, next);
+        }
+        
+        TreeNode<K, V> element(TreeNode<K, V> node) {
+            return node;
+        }
+        
+        NodeSpliterator<TreeNode<K, V>> create(int index, int fence, 
+                TreeNode<K, V> next) {
+            return new EntrySpliterator(index, fence, next);
+        }
+        
+        public int characteristics() {
+            return super.characteristics() | DISTINCT | NONNULL;
+        }
+    }
+    
+    /**
+     * Builds a perfectly balanced tree out of key-value pairs that are 
+     * returned in ascending order of their keys. Each subtree is built by 
+     * first building its left half, then taking the next pair for its root 
+     * and finally building its right half, so that the pairs are consumed in
+     * order and every pair is looked at only once.
+     */
+    private static class SortedBuilder<K extends Comparable<K>, V> {
+        private final BinaryTree<K, V> tree;
+        private final Iterator<? extends K> keys;
+        private final Iterator<? extends V> values;
+        private K lastKey;
+        private boolean first;
+        
+        /**
+         * Constructs a new <tt>SortedBuilder</tt>.
+         * 
+         * @param tree the tree whose nodes to build.
+         * @param keys returns the keys in ascending order.
+         * @param values returns the values.
+         */
+        SortedBuilder(BinaryTree<K, V> tree, Iterator<? extends K> keys, 
+                Iterator<? extends V> values) {
+            this.tree = tree;
+            this.keys = keys;
+            this.values = values;
+            first = true;
+        }
+        
+        /**
+         * Builds a subtree out of the next <tt>size</tt> key-value pairs.
+         * 
+         * @param size the number of nodes in the subtree.
+         * @return the root of the subtree, or <tt>null</tt> if <tt>size</tt> 
+         *  is zero.
+         */
+        TreeNode<K, V> build(int size) {
+            if (size <= 0) {
+                return null;
+            }
+            int leftSize = (size - 1) / 2;
+            TreeNode<K, V> left = build(leftSize);
+            if (!keys.hasNext() || !values.hasNext()) {
+                throw new IllegalArgumentException("Too few key-value pairs");
+            }
+            K key = keys.next();
+            if (!first && tree.compare(lastKey, key) >= 0) {
+                throw new IllegalArgumentException(String.format(
+                    "Key %s does not come after %s", key, lastKey));
+            }
+            lastKey = key;
+            first = false;
+            TreeNode<K, V> node = tree.createNode(key, values.next());
+            node.setLeftChild(left);
+            node.setRightChild(build(size - leftSize - 1));
+            node.updateSubtreeSize();
+            return node;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package dat1;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A first-in first-out (FIFO) data structure of limited capacity, which lets
+ * consumer threads wait for items and producer threads wait for room.
+ * <p>
+ * Besides the <tt>enqueue()</tt> and <tt>dequeue()</tt> methods of a
+ * {@link Queue}, which throw an exception rather than wait, a
+ * <tt>BoundedBlockingQueue</tt> offers:
+ * <ul>
+ *   <li><tt>offer()</tt> and <tt>poll()</tt>, which return <tt>false</tt>
+ *   or <tt>null</tt> at once, or after waiting for a given time, if there is
+ *   no room or no item;</li>
+ *   <li><tt>put()</tt> and <tt>take()</tt>, which wait as long as it
+ *   takes;</li>
+ *   <li><tt>drainTo()</tt>, which removes a batch of items at once.</li>
+ * </ul>
+ * The items are kept in an {@link ArrayQueue} that is guarded by a single
+ * {@link ReentrantLock}. A consumer that takes many items can save most of
+ * the locking by calling <tt>drainTo()</tt> instead of <tt>take()</tt>
+ * once it has been woken up. A <tt>BoundedBlockingQueue</tt> does not accept
+ * <tt>null</tt> items, because <tt>poll()</tt> uses <tt>null</tt> to signal
+ * that it timed out.
+ *
+ * @author K. Atas
+ */
+public class BoundedBlockingQueue<E> {
+    private final ArrayQueue<E> items;
+    private final int capacity;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+
+    /**
+     * Constructs a new <tt>BoundedBlockingQueue</tt>.
+     *
+     * @param capacity the maximum number of items in the queue.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is less than one.
+     */
+    public BoundedBlockingQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.valueOf(capacity));
+        }
+        this.capacity = capacity;
+        items = new ArrayQueue<E>(capacity);
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
+    }
+
+    /**
+     * Gets the maximum number of items in this <tt>BoundedBlockingQueue</tt>.
+     *
+     * @return the capacity.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the size of this <tt>BoundedBlockingQueue</tt>.
+     *
+     * @return the number of items in this <tt>BoundedBlockingQueue</tt>.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return items.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Determines whether this <tt>BoundedBlockingQueue</tt> is empty.
+     *
+     * @return <tt>true</tt> if this <tt>BoundedBlockingQueue</tt> is empty,
+     *  <tt>false</tt> otherwise.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the item at the head of this <tt>BoundedBlockingQueue</tt>
+     * without removing it.
+     *
+     * @return the item at the head of this <tt>BoundedBlockingQueue</tt>.
+     * @throws QueueEmptyException if the <tt>BoundedBlockingQueue</tt> is
+     *  empty.
+     */
+    public E peek() {
+        lock.lock();
+        try {
+            return items.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the specified item to the end of this
+     * <tt>BoundedBlockingQueue</tt>.
+     *
+     * @param item the item to place in this <tt>BoundedBlockingQueue</tt>.
+     * @throws QueueFullException if the <tt>BoundedBlockingQueue</tt> is
+     *  full.
+     * @throws NullPointerException if <tt>item</tt> is <tt>null</tt>.
+     */
+    public void enqueue(E item) {
+        if (!offer(item)) {
+            throw new QueueFullException();
+        }
+    }
+
+    /**
+     * Removes and returns the item at the head of this
+     * <tt>BoundedBlockingQueue</tt>.
+     *
+     * @return the item at the head of this <tt>BoundedBlockingQueue</tt>.
+     * @throws QueueEmptyException if the <tt>BoundedBlockingQueue</tt> is
+     *  empty.
+     */
+    public E dequeue() {
+        E item = poll();
+        if (item == null) {
+            throw new QueueEmptyException();
+        }
+        return item;
+    }
+
+    /**
+     * Adds the specified item to the end of this
+     * <tt>BoundedBlockingQueue</tt>, if there is room for it.
+     *
+     * @param item the item to place in this <tt>BoundedBlockingQueue</tt>.
+     * @return <tt>true</tt> if the item was added, <tt>false</tt> if this
+     *  <tt>BoundedBlockingQueue</tt> is full.
+     * @throws NullPointerException if <tt>item</tt> is <tt>null</tt>.
+     */
+    public boolean offer(E item) {
+        checkNotNull(item);
+        lock.lock();
+        try {
+            if (items.size() == capacity) {
+                return false;
+            }
+            insert(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the specified item to the end of this
+     * <tt>BoundedBlockingQueue</tt>, waiting up to the specified time for
+     * room to become available.
+     *
+     * @param item the item to place in this <tt>BoundedBlockingQueue</tt>.
+     * @param timeout how long to wait, in units of <tt>unit</tt>.
+     * @param unit the unit of <tt>timeout</tt>.
+     * @return <tt>true</tt> if the item was added, <tt>false</tt> if there
+     *  was no room before the time ran out.
+     * @throws InterruptedException if the thread was interrupted while
+     *  waiting.
+     * @throws NullPointerException if <tt>item</tt> is <tt>null</tt>.
+     */
+    public boolean offer(E item, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        checkNotNull(item);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (items.size() == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            insert(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the specified item to the end of this
+     * <tt>BoundedBlockingQueue</tt>, waiting for room to become available if
+     * it is full.
+     *
+     * @param item the item to place in this <tt>BoundedBlockingQueue</tt>.
+     * @throws InterruptedException if the thread was interrupted while
+     *  waiting.
+     * @throws NullPointerException if <tt>item</tt> is <tt>null</tt>.
+     */
+    public void put(E item) throws InterruptedException {
+        checkNotNull(item);
+        lock.lockInterruptibly();
+        try {
+            while (items.size() == capacity) {
+                notFull.await();
+            }
+            insert(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the item at the head of this
+     * <tt>BoundedBlockingQueue</tt>, if there is one.
+     *
+     * @return the item at the head of this <tt>BoundedBlockingQueue</tt>, or
+     *  <tt>null</tt> if it is empty.
+     */
+    public E poll() {
+        lock.lock();
+        try {
+            return items.isEmpty() ? null : extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the item at the head of this
+     * <tt>BoundedBlockingQueue</tt>, waiting up to the specified time for an
+     * item to become available.
+     *
+     * @param timeout how long to wait, in units of <tt>unit</tt>.
+     * @param unit the unit of <tt>timeout</tt>.
+     * @return the item at the head of this <tt>BoundedBlockingQueue</tt>, or
+     *  <tt>null</tt> if no item became available before the time ran out.
+     * @throws InterruptedException if the thread was interrupted while
+     *  waiting.
+     */
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (items.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the item at the head of this
+     * <tt>BoundedBlockingQueue</tt>, waiting for one to become available if
+     * it is empty.
+     *
+     * @return the item at the head of this <tt>BoundedBlockingQueue</tt>.
+     * @throws InterruptedException if the thread was interrupted while
+     *  waiting.
+     */
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (items.isEmpty()) {
+                notEmpty.await();
+            }
+            return extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to the specified number of items from the head of this
+     * <tt>BoundedBlockingQueue</tt> and appends them to a list, in order,
+     * while holding the lock only once. Does not wait.
+     *
+     * @param list the list to append the items to.
+     * @param max the maximum number of items to remove.
+     * @return the number of items that were removed.
+     */
+    public int drainTo(LinkedList<? super E> list, int max) {
+        lock.lock();
+        try {
+            int count = Math.min(max, items.size());
+            for (int i = 0; i < count; i++) {
+                list.addLast(items.dequeue());
+            }
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return Math.max(count, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a string representation of this <tt>BoundedBlockingQueue</tt>.
+     */
+    public String toString() {
+        lock.lock();
+        try {
+            return items.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an item while holding the lock, and wakes up a waiting consumer.
+     *
+     * @param item the item to add.
+     */
+    private void insert(E item) {
+        items.enqueue(item);
+        notEmpty.signal();
+    }
+
+    /**
+     * Removes an item while holding the lock, and wakes up a waiting
+     * producer.
+     *
+     * @return the removed item.
+     */
+    private E extract() {
+        E item = items.dequeue();
+        notFull.signal();
+        return item;
+    }
+
+    /**
+     * Rejects <tt>null</tt> items.
+     *
+     * @param item the item to check.
+     * @throws NullPointerException if <tt>item</tt> is <tt>null</tt>.
+     */
+    private static void checkNotNull(Object item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+    }
+}
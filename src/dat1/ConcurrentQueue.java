@@ -0,0 +1,245 @@
+package dat1;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded first-in first-out (FIFO) data structure that can be used to
+ * hand items from producer threads to consumer threads without locking.
+ * <p>
+ * Subclasses implement the non-blocking <tt>offer()</tt> and <tt>poll()</tt>
+ * methods on top of a ring buffer. On top of these, <tt>ConcurrentQueue</tt>
+ * provides:
+ * <ul>
+ *   <li><tt>enqueue()</tt> and <tt>dequeue()</tt>, which throw a
+ *   {@link QueueFullException} or {@link QueueEmptyException} instead of
+ *   waiting, like those of {@link Queue};</li>
+ *   <li><tt>put()</tt> and <tt>take()</tt>, which wait for room or for an
+ *   item to become available, by spinning briefly and then parking the
+ *   thread for increasingly longer periods.</li>
+ * </ul>
+ * A <tt>ConcurrentQueue</tt> does not accept <tt>null</tt> items, because
+ * <tt>poll()</tt> uses <tt>null</tt> to signal that it is empty.
+ *
+ * @see SpscQueue
+ * @see MpmcQueue
+ * @author K. Atas
+ */
+public abstract class ConcurrentQueue<E> {
+    /**
+     * The number of times <tt>put()</tt> and <tt>take()</tt> retry before
+     * they start parking.
+     */
+    private static final int SPINS = 100;
+
+    /**
+     * The longest period that <tt>put()</tt> and <tt>take()</tt> park for,
+     * in nanoseconds.
+     */
+    private static final long MAX_PARK_NANOS = 1000000L;
+
+    /**
+     * Gets the number of items that this <tt>ConcurrentQueue</tt> can hold.
+     *
+     * @return the capacity, which is a power of two.
+     */
+    public abstract int capacity();
+
+    /**
+     * Gets the size of this <tt>ConcurrentQueue</tt>. Since other threads may
+     * change the queue at the same time, the result is only an estimate.
+     *
+     * @return the number of items in this <tt>ConcurrentQueue</tt>.
+     */
+    public abstract int size();
+
+    /**
+     * Adds the specified item to the end of this <tt>ConcurrentQueue</tt>,
+     * if there is room for it.
+     *
+     * @param item the item to place in this <tt>ConcurrentQueue</tt>.
+     * @return <tt>true</tt> if the item was added, <tt>false</tt> if this
+     *  <tt>ConcurrentQueue</tt> is full.
+     * @throws NullPointerException if <tt>item</tt> is <tt>null</tt>.
+     */
+    public abstract boolean offer(E item);
+
+    /**
+     * Removes and returns the item at the head of this
+     * <tt>ConcurrentQueue</tt>, if there is one.
+     *
+     * @return the item at the head of this <tt>ConcurrentQueue</tt>, or
+     *  <tt>null</tt> if it is empty.
+     */
+    public abstract E poll();
+
+    /**
+     * Determines whether this <tt>ConcurrentQueue</tt> is empty. Since other
+     * threads may change the queue at the same time, the result is only an
+     * estimate.
+     *
+     * @return <tt>true</tt> if this <tt>ConcurrentQueue</tt> is empty,
+     *  <tt>false</tt> otherwise.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Adds the specified item to the end of this <tt>ConcurrentQueue</tt>.
+     *
+     * @param item the item to place in this <tt>ConcurrentQueue</tt>.
+     * @throws QueueFullException if the <tt>ConcurrentQueue</tt> is full.
+     * @throws NullPointerException if <tt>item</tt> is <tt>null</tt>.
+     */
+    public void enqueue(E item) {
+        if (!offer(item)) {
+            throw new QueueFullException();
+        }
+    }
+
+    /**
+     * Removes and returns the item at the head of this
+     * <tt>ConcurrentQueue</tt>.
+     *
+     * @return the item at the head of this <tt>ConcurrentQueue</tt>.
+     * @throws QueueEmptyException if the <tt>ConcurrentQueue</tt> is empty.
+     */
+    public E dequeue() {
+        E item = poll();
+        if (item == null) {
+            throw new QueueEmptyException();
+        }
+        return item;
+    }
+
+    /**
+     * Adds the specified item to the end of this <tt>ConcurrentQueue</tt>,
+     * waiting for room to become available if it is full.
+     *
+     * @param item the item to place in this <tt>ConcurrentQueue</tt>.
+     * @throws InterruptedException if the thread was interrupted while
+     *  waiting.
+     * @throws NullPointerException if <tt>item</tt> is <tt>null</tt>.
+     */
+    public void put(E item) throws InterruptedException {
+        for (int attempt = 0; !offer(item); attempt++) {
+            backOff(attempt);
+        }
+    }
+
+    /**
+     * Removes and returns the item at the head of this
+     * <tt>ConcurrentQueue</tt>, waiting for one to become available if it is
+     * empty.
+     *
+     * @return the item at the head of this <tt>ConcurrentQueue</tt>.
+     * @throws InterruptedException if the thread was interrupted while
+     *  waiting.
+     */
+    public E take() throws InterruptedException {
+        E item;
+        for (int attempt = 0; (item = poll()) == null; attempt++) {
+            backOff(attempt);
+        }
+        return item;
+    }
+
+    /**
+     * Waits a little before the next attempt of <tt>put()</tt> or
+     * <tt>take()</tt>. Spins at first, then yields and finally parks for up
+     * to <tt>MAX_PARK_NANOS</tt>.
+     *
+     * @param attempt the number of attempts that failed so far.
+     * @throws InterruptedException if the thread was interrupted.
+     */
+    private static void backOff(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (attempt < SPINS) {
+            return;
+        }
+        if (attempt < 2 * SPINS) {
+            Thread.yield();
+        } else {
+            int shift = Math.min(attempt - 2 * SPINS, 20);
+            LockSupport.parkNanos(Math.min(1L << shift, MAX_PARK_NANOS));
+        }
+    }
+
+    /**
+     * Rounds the specified capacity up to a power of two.
+     *
+     * @param capacity the requested capacity.
+     * @return the smallest power of two that is not less than
+     *  <tt>capacity</tt>.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is less than
+     *  one, or greater than 2<sup>30</sup>.
+     */
+    static int powerOfTwo(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException(String.valueOf(capacity));
+        }
+        return capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * Cache line padding that precedes the value of a <tt>Counter</tt>.
+     */
+    static class CounterLeftPad {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    /**
+     * The value of a <tt>Counter</tt>.
+     */
+    static class CounterValue extends CounterLeftPad {
+        volatile long value;
+        long cache;
+    }
+
+    /**
+     * A <tt>long</tt> counter that sits on a cache line of its own, so that
+     * the producers and consumers that update a head and a tail counter do
+     * not slow each other down by sharing a cache line (false sharing). The
+     * JVM lays out the fields of a superclass before those of its
+     * subclasses, which keeps the value between the padding fields.
+     * <p>
+     * Next to its value, a <tt>Counter</tt> has a plain <tt>cache</tt> field
+     * for use by the thread that advances it, to cache the value of the
+     * opposite counter.
+     */
+    static final class Counter extends CounterValue {
+        private static final AtomicLongFieldUpdater<CounterValue> VALUE =
+            AtomicLongFieldUpdater.newUpdater(CounterValue.class, "value");
+
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        /**
+         * Gets the value of this <tt>Counter</tt>.
+         */
+        long get() {
+            return value;
+        }
+
+        /**
+         * Sets the value of this <tt>Counter</tt>. Writes made before the
+         * call become visible to threads that see the new value, but unlike a
+         * volatile write it does not wait for the value to become visible.
+         */
+        void lazySet(long newValue) {
+            VALUE.lazySet(this, newValue);
+        }
+
+        /**
+         * Sets the value of this <tt>Counter</tt> if it is still the expected
+         * value.
+         *
+         * @return <tt>true</tt> if the value was set.
+         */
+        boolean compareAndSet(long expected, long newValue) {
+            return VALUE.compareAndSet(this, expected, newValue);
+        }
+    }
+}
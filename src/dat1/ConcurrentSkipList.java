@@ -0,0 +1,434 @@
+package dat1;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe ordered key-value map with the same interface as
+ * {@link BinaryTree}, implemented as a lazy skip list.
+ * <p>
+ * A skip list keeps its entries in a sorted linked list, and speeds up
+ * searching it with a hierarchy of sparser lists on top. Each node is linked
+ * into a randomly chosen number of levels, so that every level contains
+ * about half the nodes of the level below it. A search starts at the top
+ * level and drops down a level whenever the next node would overshoot the
+ * key, which takes O(log n) steps on average.
+ * <p>
+ * Lookups take no locks at all and never wait, so readers scale across as
+ * many threads as there are cores. Adding or removing a key only locks the
+ * nodes immediately before it on each of its levels, so writers that touch
+ * different parts of the list do not get in each other's way. A node is
+ * logically removed by marking it before it is unlinked, and only counts as
+ * present once it has been linked into all of its levels. These two flags
+ * are what makes every operation appear to take effect at a single instant.
+ * <p>
+ * Iterating over a <tt>ConcurrentSkipList</tt>, as in {@link #asList()} and
+ * {@link #traverse(TreeTraverser)}, is weakly consistent: it reflects every
+ * change that completed before it started, and may or may not reflect the
+ * changes that are made while it is in progress.
+ *
+ * @author K. Atas
+ */
+public class ConcurrentSkipList<K extends Comparable<K>, V> {
+    private static final int MAX_LEVEL = 32;
+
+    private final Node<K, V> head;
+    private final Node<K, V> tail;
+    private final AtomicInteger size;
+
+    /**
+     * The highest level that any node has been linked into. Only ever grows,
+     * and is raised before a node is linked in, so that a search that starts
+     * from it does not skip any node that is present.
+     */
+    private final AtomicInteger highestLevel;
+
+    /**
+     * Constructs a new <tt>ConcurrentSkipList</tt>.
+     */
+    public ConcurrentSkipList() {
+        head = new Node<K, V>(null, null, MAX_LEVEL - 1);
+        tail = new Node<K, V>(null, null, MAX_LEVEL - 1);
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            head.next.set(level, tail);
+        }
+        head.fullyLinked = tail.fullyLinked = true;
+        size = new AtomicInteger();
+        highestLevel = new AtomicInteger();
+    }
+
+    /**
+     * Gets the size of this <tt>ConcurrentSkipList</tt>.
+     *
+     * @return the number of key-value mappings in this
+     *  <tt>ConcurrentSkipList</tt>.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Adds a new key-value pair to this <tt>ConcurrentSkipList</tt>. If
+     * <tt>key</tt> identifies an existing mapping, the value is replaced.
+     *
+     * @param key the lookup key.
+     * @param value the value to associate with <tt>key</tt>.
+     * @return the value that was previously associated with <tt>key</tt>,
+     *  otherwise <tt>null</tt>.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public V add(K key, V value) {
+        int topLevel = randomLevel();
+        int levels = raiseHighestLevel(topLevel) + 1;
+        Node<K, V>[] preds = new Node[levels];
+        Node<K, V>[] succs = new Node[levels];
+        while (true) {
+            int levelFound = find(key, preds, succs);
+            if (levelFound != -1) {
+                Node<K, V> found = succs[levelFound];
+                if (found.marked) {
+                    continue; // being removed, try again.
+                }
+                while (!found.fullyLinked) {
+                    Thread.yield(); // being added, wait until it is done.
+                }
+                found.lock.lock();
+                try {
+                    if (!found.marked) {
+                        V oldValue = found.value;
+                        found.value = value;
+                        return oldValue;
+                    }
+                } finally {
+                    found.lock.unlock();
+                }
+                continue;
+            }
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level <= topLevel; level++) {
+                    Node<K, V> pred = preds[level];
+                    Node<K, V> succ = succs[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && !succ.marked
+                        && pred.next.get(level) == succ;
+                }
+                if (!valid) {
+                    continue; // something changed in between, try again.
+                }
+                Node<K, V> node = new Node<K, V>(key, value, topLevel);
+                for (int level = 0; level <= topLevel; level++) {
+                    node.next.set(level, succs[level]);
+                }
+                for (int level = 0; level <= topLevel; level++) {
+                    preds[level].next.set(level, node);
+                }
+                node.fullyLinked = true;
+                size.incrementAndGet();
+                return null;
+            } finally {
+                unlock(preds, highestLocked);
+            }
+        }
+    }
+
+    /**
+     * Gets the value associated with the specified key. Does not take any
+     * locks.
+     *
+     * @param key the lookup key.
+     * @return the value that <tt>key</tt> maps to.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public V get(K key) {
+        return findNode(key).value;
+    }
+
+    /**
+     * Replaces the value associated with the specified key by a new value.
+     *
+     * @param key the lookup key.
+     * @param value a new value to associate with <tt>key</tt>.
+     * @return the previous value.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public V set(K key, V value) {
+        Node<K, V> node = findNode(key);
+        node.lock.lock();
+        try {
+            if (node.marked) {
+                throw new NoSuchKeyException(String.valueOf(key));
+            }
+            V oldValue = node.value;
+            node.value = value;
+            return oldValue;
+        } finally {
+            node.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a key and its associated value from this
+     * <tt>ConcurrentSkipList</tt>.
+     *
+     * @param key the lookup key.
+     * @return the value that was removed.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public V remove(K key) {
+        // a node that is linked in above this level was not yet present.
+        int levels = highestLevel.get() + 1;
+        Node<K, V>[] preds = new Node[levels];
+        Node<K, V>[] succs = new Node[levels];
+        Node<K, V> victim = null;
+        boolean marked = false;
+        while (true) {
+            int levelFound = find(key, preds, succs);
+            if (!marked) {
+                if (levelFound == -1) {
+                    throw new NoSuchKeyException(String.valueOf(key));
+                }
+                victim = succs[levelFound];
+                if (!victim.fullyLinked || victim.marked
+                        || victim.topLevel != levelFound) {
+                    throw new NoSuchKeyException(String.valueOf(key));
+                }
+                victim.lock.lock();
+                if (victim.marked) { // removed by someone else in between.
+                    victim.lock.unlock();
+                    throw new NoSuchKeyException(String.valueOf(key));
+                }
+                victim.marked = true;
+                marked = true;
+            }
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level <= victim.topLevel; level++) {
+                    Node<K, V> pred = preds[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && pred.next.get(level) == victim;
+                }
+                if (!valid) {
+                    continue; // something changed in between, try again.
+                }
+                for (int level = victim.topLevel; level >= 0; level--) {
+                    preds[level].next.set(level, victim.next.get(level));
+                }
+                V value = victim.value;
+                victim.lock.unlock();
+                size.decrementAndGet();
+                return value;
+            } finally {
+                unlock(preds, highestLocked);
+            }
+        }
+    }
+
+    /**
+     * Has the specified {@link TreeTraverser} traverse the contents of this
+     * <tt>ConcurrentSkipList</tt>.
+     * <p>
+     * Because a <tt>TreeTraverser</tt> works on {@link TreeNode} objects,
+     * this method first takes a snapshot of the contents and builds a
+     * balanced {@link BinaryTree} out of it, which is then traversed.
+     *
+     * @param traverser will traverse the snapshot node by node.
+     */
+    public void traverse(TreeTraverser traverser) {
+        LinkedList<K> keys = new LinkedList<K>();
+        LinkedList<V> values = new LinkedList<V>();
+        for (Node<K, V> node = head.next.get(0); node != tail;
+                node = node.next.get(0)) {
+            if (node.fullyLinked && !node.marked) {
+                keys.addLast(node.key);
+                values.addLast(node.value);
+            }
+        }
+        BinaryTree.fromSorted(keys, values).traverse(traverser);
+    }
+
+    /**
+     * Returns the contents of this <tt>ConcurrentSkipList</tt> as a
+     * {@link LinkedList}.
+     *
+     * @return a {@link LinkedList} containing the items in this
+     *  <tt>ConcurrentSkipList</tt>, in ascending order of their keys.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends V> LinkedList<E> asList() {
+        LinkedList<E> list = new LinkedList<E>();
+        for (Node<K, V> node = head.next.get(0); node != tail;
+                node = node.next.get(0)) {
+            if (node.fullyLinked && !node.marked) {
+                list.addLast((E)node.value);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns a string representation of this <tt>ConcurrentSkipList</tt>.
+     */
+    public String toString() {
+        return asList().toString();
+    }
+
+    /**
+     * Finds the node with the specified lookup key without taking any locks.
+     *
+     * @param key the lookup key.
+     * @return the node with the specified key.
+     * @throws NoSuchKeyException if no such node is present.
+     */
+    private Node<K, V> findNode(K key) {
+        Node<K, V> pred = head;
+        for (int level = highestLevel.get(); level >= 0; level--) {
+            Node<K, V> curr = pred.next.get(level);
+            int sortOrder;
+            while ((sortOrder = compare(key, curr)) > 0) {
+                pred = curr;
+                curr = pred.next.get(level);
+            }
+            if (sortOrder == 0) {
+                if (curr.fullyLinked && !curr.marked) {
+                    return curr;
+                }
+                break;
+            }
+        }
+        throw new NoSuchKeyException(String.valueOf(key));
+    }
+
+    /**
+     * Finds the nodes that come immediately before and after the specified
+     * key on every level up to the length of the arrays.
+     *
+     * @param key the lookup key.
+     * @param preds receives the last node before <tt>key</tt> on each level.
+     * @param succs receives the first node at or after <tt>key</tt> on each
+     *  level.
+     * @return the highest level on which a node with <tt>key</tt> was found,
+     *  or -1 if there is none.
+     */
+    private int find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        int levelFound = -1;
+        Node<K, V> pred = head;
+        for (int level = preds.length - 1; level >= 0; level--) {
+            Node<K, V> curr = pred.next.get(level);
+            int sortOrder;
+            while ((sortOrder = compare(key, curr)) > 0) {
+                pred = curr;
+                curr = pred.next.get(level);
+            }
+            if (levelFound == -1 && sortOrder == 0) {
+                levelFound = level;
+            }
+            preds[level] = pred;
+            succs[level] = curr;
+        }
+        return levelFound;
+    }
+
+    /**
+     * Releases the locks on the nodes in <tt>preds</tt>, from level zero up
+     * to and including the specified level.
+     *
+     * @param preds the locked nodes.
+     * @param highestLocked the highest level that was locked, or -1.
+     */
+    private static <K, V> void unlock(Node<K, V>[] preds, int highestLocked) {
+        for (int level = 0; level <= highestLocked; level++) {
+            preds[level].lock.unlock();
+        }
+    }
+
+    /**
+     * Raises the highest level in use to at least the specified level.
+     *
+     * @param level the top level of a node that is about to be linked in.
+     * @return the highest level in use, which is at least <tt>level</tt>.
+     */
+    private int raiseHighestLevel(int level) {
+        while (true) {
+            int current = highestLevel.get();
+            if (level <= current) {
+                return current;
+            }
+            if (highestLevel.compareAndSet(current, level)) {
+                return level;
+            }
+        }
+    }
+
+    /**
+     * Picks the top level for a new node. The probability of a node reaching
+     * a level is half that of it reaching the level below.
+     *
+     * @return a level from zero to <tt>MAX_LEVEL - 1</tt>.
+     */
+    private static int randomLevel() {
+        int bits = ThreadLocalRandom.current().nextInt();
+        return Math.min(Integer.numberOfTrailingZeros(bits), MAX_LEVEL - 1);
+    }
+
+    /**
+     * Compares a lookup key with the key of a node for order. The head node
+     * comes before, and the tail node after, any key.
+     *
+     * @param key the lookup key.
+     * @param node the node to compare with.
+     * @return a negative integer, zero, or a positive integer as <tt>key</tt>
+     *  is less than, equal to, or greater than the key of <tt>node</tt>.
+     */
+    private int compare(K key, Node<K, V> node) {
+        if (node == tail) {
+            return -1;
+        }
+        if (node == head) {
+            return 1;
+        }
+        K other = node.key;
+        if (key == null || other == null) { // handle null keys
+            if (key == other) { // both null
+                return 0; // two nulls are equal
+            }
+            return key == null ? -1 : 1; // null < anything else
+        }
+        return key.compareTo(other);
+    }
+
+    /**
+     * A node in a <tt>ConcurrentSkipList</tt>.
+     */
+    private static class Node<K, V> {
+        final K key;
+        final int topLevel;
+        final AtomicReferenceArray<Node<K, V>> next;
+        final ReentrantLock lock;
+        volatile V value;
+        volatile boolean marked;
+        volatile boolean fullyLinked;
+
+        /**
+         * Constructs a new <tt>Node</tt>.
+         *
+         * @param key the key of this node.
+         * @param value the value of this node.
+         * @param topLevel the highest level this node is linked into.
+         */
+        Node(K key, V value, int topLevel) {
+            this.key = key;
+            this.value = value;
+            this.topLevel = topLevel;
+            next = new AtomicReferenceArray<Node<K, V>>(topLevel + 1);
+            lock = new ReentrantLock();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package dat1;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A list with the same interface as {@link LinkedList}, which finds the item
+ * at any offset in O(log n) expected time.
+ * <p>
+ * An <tt>IndexedSkipList</tt> is a skip list ordered by position instead of
+ * by key. Every node is part of the list at level 0, and about half of the
+ * nodes at each level are also part of the list at the next level up, so
+ * that the upper levels act as express lanes. Every link records its width:
+ * the number of positions it skips. Finding the node at an offset starts at
+ * the top level and follows each link whose width does not overshoot the
+ * offset, before dropping down a level. <tt>get()</tt>, <tt>set()</tt>,
+ * <tt>add()</tt> and <tt>remove()</tt> at any offset therefore take
+ * O(log n) expected time, where a {@link LinkedList} takes O(n).
+ * <p>
+ * The price is an array of links and an array of widths per node, which on
+ * average hold two entries each.
+ *
+ * @author K. Atas
+ */
+public class IndexedSkipList<E> {
+    private static final int MAX_LEVEL = 32;
+
+    /**
+     * The head sits before the first item, at offset -1. It is part of the
+     * list at every level.
+     */
+    private final Node<E> head;
+    private int level;
+    private int size;
+
+    /**
+     * Scratch space for <tt>add()</tt> and <tt>remove()</tt>, which receives
+     * the last node before an offset, and its offset, at every level. Kept
+     * here so that updates do not allocate it each time. The nodes are
+     * cleared after use, so that removed nodes are not kept reachable.
+     */
+    private final Node<E>[] preds;
+    private final int[] predIndexes;
+
+    /**
+     * Constructs a new, empty <tt>IndexedSkipList</tt>.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public IndexedSkipList() {
+        preds = new Node[MAX_LEVEL];
+        predIndexes = new int[MAX_LEVEL];
+        head = new Node<E>(null, MAX_LEVEL);
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.width[i] = 1; // from offset -1 to the end, at offset 0
+        }
+        level = 1;
+    }
+
+    /**
+     * Constructs a new <tt>IndexedSkipList</tt> initialized with the items
+     * contained in the specified array.
+     *
+     * @param items an array whose items are to be added to this
+     *  <tt>IndexedSkipList</tt>.
+     */
+    public IndexedSkipList(E[] items) {
+        this();
+        for (E item : items) {
+            addLast(item);
+        }
+    }
+
+    /**
+     * Gets the size of this <tt>IndexedSkipList</tt>.
+     *
+     * @return the number of items in this <tt>IndexedSkipList</tt>.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a new item to the beginning (or head) of this
+     * <tt>IndexedSkipList</tt>.
+     *
+     * @param item the item to add to this <tt>IndexedSkipList</tt>.
+     */
+    public void addFirst(E item) {
+        add(0, item);
+    }
+
+    /**
+     * Adds a new item to the end of this <tt>IndexedSkipList</tt>.
+     *
+     * @param item the item to add to this <tt>IndexedSkipList</tt>.
+     */
+    public void addLast(E item) {
+        add(size, item);
+    }
+
+    /**
+     * Adds a new item to this <tt>IndexedSkipList</tt> at the specified
+     * position.
+     *
+     * @param index the offset at which to add the item.
+     * @param item the item to add to this <tt>IndexedSkipList</tt>.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index > size()</tt>.
+     */
+    public void add(int index, E item) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        findPredecessors(index);
+        int nodeLevel = randomLevel();
+        for (int i = level; i < nodeLevel; i++) { // a new, empty level
+            preds[i] = head;
+            predIndexes[i] = -1;
+            head.width[i] = size + 1;
+        }
+        level = Math.max(level, nodeLevel);
+        Node<E> node = new Node<E>(item, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            Node<E> pred = preds[i];
+            preds[i] = null;
+            int end = predIndexes[i] + pred.width[i]; // the offset it skips to
+            node.next[i] = pred.next[i];
+            node.width[i] = end + 1 - index; // the skipped node moves up one
+            pred.next[i] = node;
+            pred.width[i] = index - predIndexes[i];
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            preds[i].width[i]++; // now skips over the new node as well
+            preds[i] = null;
+        }
+        size++;
+    }
+
+    /**
+     * Gets the item at the beginning of this <tt>IndexedSkipList</tt>.
+     *
+     * @return the first item in this <tt>IndexedSkipList</tt> or
+     *  <tt>null</tt>, if there are no items.
+     */
+    public E getFirst() {
+        return size == 0 ? null : head.next[0].item;
+    }
+
+    /**
+     * Gets the item at the end of this <tt>IndexedSkipList</tt>.
+     *
+     * @return the last item in this <tt>IndexedSkipList</tt> or
+     *  <tt>null</tt>, if there are no items.
+     */
+    public E getLast() {
+        return size == 0 ? null : getNodeAt(size - 1).item;
+    }
+
+    /**
+     * Gets the item at the specified position in this
+     * <tt>IndexedSkipList</tt>.
+     *
+     * @param index the offset at which to retrieve the item.
+     * @return the item at specified offset.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index >= size()</tt>.
+     */
+    public E get(int index) {
+        return getNodeAt(index).item;
+    }
+
+    /**
+     * Replaces the item at the specified position in this
+     * <tt>IndexedSkipList</tt> with another one.
+     *
+     * @param index offset at which to replace the item.
+     * @param item the item to replace with.
+     * @return the item that was previously at that position.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index >= size()</tt>.
+     */
+    public E set(int index, E item) {
+        Node<E> node = getNodeAt(index);
+        E oldItem = node.item;
+        node.item = item;
+        return oldItem;
+    }
+
+    /**
+     * Removes and returns the item at the beginning of this
+     * <tt>IndexedSkipList</tt>.
+     *
+     * @return the removed item or <tt>null</tt>, if the list is empty.
+     */
+    public E removeFirst() {
+        return size == 0 ? null : remove(0);
+    }
+
+    /**
+     * Removes and returns the item at the end of this
+     * <tt>IndexedSkipList</tt>.
+     *
+     * @return the removed item or <tt>null</tt>, if the list is empty.
+     */
+    public E removeLast() {
+        return size == 0 ? null : remove(size - 1);
+    }
+
+    /**
+     * Removes and returns the item at the specified position in this
+     * <tt>IndexedSkipList</tt>.
+     *
+     * @param index the offset at which to remove the item.
+     * @return the removed item.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index >= size()</tt>.
+     */
+    public E remove(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        findPredecessors(index);
+        Node<E> node = preds[0].next[0];
+        for (int i = 0; i < level; i++) {
+            Node<E> pred = preds[i];
+            preds[i] = null;
+            if (i < node.next.length) {
+                pred.width[i] += node.width[i] - 1;
+                pred.next[i] = node.next[i];
+            } else {
+                pred.width[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return node.item;
+    }
+
+    /**
+     * Returns the offset in this <tt>IndexedSkipList</tt> of the first
+     * occurrence of the specified item.
+     *
+     * @param item the item to find the offset in this
+     *  <tt>IndexedSkipList</tt> of.
+     * @return the offset in this <tt>IndexedSkipList</tt> of the first
+     *  occurrence of the specified item. -1 if this <tt>IndexedSkipList</tt>
+     *  does not contain the item.
+     */
+    public int indexOf(E item) {
+        int i = 0;
+        for (Node<E> node = head.next[0]; node != null; node = node.next[0]) {
+            if (item == null ? node.item == null // handle null values
+                    : item.equals(node.item)) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset in this <tt>IndexedSkipList</tt> of the last
+     * occurrence of the specified item. Since the nodes only link forward,
+     * this always scans the whole list.
+     *
+     * @param item the item to find the offset in this
+     *  <tt>IndexedSkipList</tt> of.
+     * @return the offset in this <tt>IndexedSkipList</tt> of the last
+     *  occurrence of the specified item. -1 if this <tt>IndexedSkipList</tt>
+     *  does not contain the item.
+     */
+    public int lastIndexOf(E item) {
+        int index = -1;
+        int i = 0;
+        for (Node<E> node = head.next[0]; node != null; node = node.next[0]) {
+            if (item == null ? node.item == null // handle null values
+                    : item.equals(node.item)) {
+                index = i;
+            }
+            i++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns a string representation of this <tt>IndexedSkipList</tt>.
+     */
+    public String toString() {
+        StringBuffer str = new StringBuffer();
+        for (Node<E> node = head.next[0]; node != null; node = node.next[0]) {
+            if (str.length() != 0) {
+                str.append(", ");
+            }
+            str.append(node.item);
+        }
+        return String.format("[%s]", str);
+    }
+
+    /**
+     * Gets the node at the specified offset.
+     *
+     * @param index the offset at which to retrieve the node.
+     * @return the node at the specified offset.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index >= size()</tt>.
+     */
+    private Node<E> getNodeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        Node<E> node = head;
+        int offset = -1;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && offset + node.width[i] <= index) {
+                offset += node.width[i];
+                node = node.next[i];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Finds, at every level in use, the last node before the specified
+     * offset, and stores it and its offset in <tt>preds</tt> and
+     * <tt>predIndexes</tt>.
+     *
+     * @param index an offset.
+     */
+    private void findPredecessors(int index) {
+        Node<E> node = head;
+        int offset = -1;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && offset + node.width[i] < index) {
+                offset += node.width[i];
+                node = node.next[i];
+            }
+            preds[i] = node;
+            predIndexes[i] = offset;
+        }
+    }
+
+    /**
+     * Picks the number of levels for a new node: one, plus one for every
+     * coin flip that comes up heads in a row.
+     *
+     * @return a number from 1 to <tt>MAX_LEVEL</tt>.
+     */
+    private static int randomLevel() {
+        int bits = ThreadLocalRandom.current().nextInt();
+        return Math.min(Integer.numberOfTrailingZeros(bits) + 1, MAX_LEVEL);
+    }
+
+    /**
+     * A node in an <tt>IndexedSkipList</tt>. At each level, the node links
+     * to the next node at that level, and records the difference between the
+     * offsets of the two. The last node at a level records the difference
+     * with the end of the list.
+     */
+    private static class Node<E> {
+        E item;
+        final Node<E>[] next;
+        final int[] width;
+
+        /**
+         * Constructs a new <tt>Node</tt>.
+         *
+         * @param item the item of this node.
+         * @param levels the number of levels the node is part of.
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Node(E item, int levels) {
+            this.item = item;
+            next = new Node[levels];
+            width = new int[levels];
+        }
+    }
+}
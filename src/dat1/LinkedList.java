@@ -1,5 +1,10 @@
 package dat1;
 
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
 /**
  * Implementation of a doubly-linked list. A <tt>LinkedList</tt> consists of 
  * a sequence of nodes, containing the list data, that link to one and other. 
@@ -7,13 +12,49 @@ package dat1;
  * A <tt>LinkedList</tt> implements relatively efficient insertion and removal
  * operations. But unlike an indexed structure such as an array, fast, random 
  * access to its elements is not possible.
+ * <p>
+ * To make up for some of that, a <tt>LinkedList</tt> remembers the node that
+ * was last accessed by its offset (the finger). A positional operation walks
+ * from whichever is closest of the first node, the last node and the finger,
+ * so that a loop over ascending or descending offsets takes O(1) time per 
+ * step instead of O(n). For O(log n) access at arbitrary offsets, use an 
+ * {@link IndexedSkipList} instead.
+ * <p>
+ * The fastest way to walk a <tt>LinkedList</tt> is with its 
+ * {@link ListIterator}, which can also add, replace and remove items at its 
+ * position in O(1) time. Filtering a list in place therefore takes O(n) 
+ * time:
+ * <pre>
+ *   Iterator&lt;String&gt; it = list.iterator();
+ *   while (it.hasNext()) {
+ *     if (it.next().isEmpty()) {
+ *       it.remove();
+ *     }
+ *   }
+ * </pre>
+ * Whole runs of nodes can be moved from one <tt>LinkedList</tt> to another
+ * without copying any items, by <tt>appendAll()</tt>, <tt>insertAll()</tt>,
+ * <tt>splitAt()</tt> and <tt>removeRange()</tt>. These only relink the 
+ * nodes at the seams, and take O(1) time apart from finding the seams.
+ * <p>
+ * The iterators are fail-fast: once the list has been changed other than 
+ * through the iterator itself, they throw a 
+ * {@link ConcurrentModificationException}.
+ * <p>
+ * To find out how far positional operations walk, call 
+ * <tt>enableMetrics()</tt>. The {@link Metrics} count the lookups by offset,
+ * the links followed per lookup and the nodes allocated.
  * 
  * @author K. Atas
  */
-public class LinkedList<E> {
+public class LinkedList<E> implements Iterable<E> {
     private ListNode<E> first;
     private ListNode<E> last;
     private int size;
+    private ListNode<E> finger;
+    private int fingerIndex;
+    private int modCount;
+    private Metrics metrics;
     
     /**
      * Constructs a new, empty <tt>LinkedList</tt>.
@@ -52,7 +93,7 @@ public class LinkedList<E> {
      * @param item the item to add to this <tt>LinkedList</tt>.
      */
     public void addFirst(E item) {
-        ListNode<E> node = new ListNode<E>(item);
+        ListNode<E> node = newNode(item);
         if (first == null) {
             first = last = node;
         } else {
@@ -60,6 +101,8 @@ public class LinkedList<E> {
             first = node;
         }
         size++;
+        modCount++;
+        fingerIndex++;
     }
     
     /**
@@ -68,7 +111,7 @@ public class LinkedList<E> {
      * @param item the item to add to this <tt>LinkedList</tt>.
      */
     public void addLast(E item) {
-        ListNode<E> node = new ListNode<E>(item);
+        ListNode<E> node = newNode(item);
         if (last == null) {
             last = first = node;
         } else {
@@ -76,6 +119,7 @@ public class LinkedList<E> {
             last = node;
         }
         size++;
+        modCount++;
     }
     
     /**
@@ -92,12 +136,9 @@ public class LinkedList<E> {
         } else if (index == size) {
             addLast(item);
         } else {
-            ListNode<E> next = getNodeAt(index);
-            ListNode<E> prev = next.getPrevious();
-            ListNode<E> node = new ListNode<E>(item);
-            node.setPrevious(prev);
-            node.setNext(next);
-            size++;
+            ListNode<E> node = linkBefore(item, getNodeAt(index));
+            finger = node;
+            fingerIndex = index;
         }
     }
     
@@ -166,13 +207,21 @@ public class LinkedList<E> {
         if (first == null) {
             return null;
         }
-        E item = first.getItem();
-        first = first.getNext();
+        ListNode<E> node = first;
+        if (finger == node) {
+            finger = null;
+        }
+        fingerIndex--;
+        first = node.getNext();
+        node.setNext(null);
         if (first == null) {
             last = null;
+        } else {
+            first.setPrevious(null); // drop the link to the removed node
         }
         size--;
-        return item;
+        modCount++;
+        return node.getItem();
     }
     
     /**
@@ -184,13 +233,20 @@ public class LinkedList<E> {
         if (last == null) {
             return null;
         }
-        E item = last.getItem();
-        last = last.getPrevious();
+        ListNode<E> node = last;
+        if (finger == node) {
+            finger = null;
+        }
+        last = node.getPrevious();
+        node.setPrevious(null);
         if (last == null) {
             first = null;
+        } else {
+            last.setNext(null); // drop the link to the removed node
         }
         size--;
-        return item;
+        modCount++;
+        return node.getItem();
     }
     
     /**
@@ -212,11 +268,135 @@ public class LinkedList<E> {
             }
         }
         ListNode<E> node = getNodeAt(index);
-        node.getPrevious().setNext(node.getNext());
-        size--;
+        ListNode<E> next = node.getNext();
+        unlink(node);
+        finger = next; // now at index
+        fingerIndex = index;
         return node.getItem();
     }
     
+    /**
+     * Moves all items of another <tt>LinkedList</tt> to the end of this one,
+     * in O(1) time. Relinks the nodes of <tt>other</tt> instead of copying 
+     * them, and leaves <tt>other</tt> empty.
+     * 
+     * @param other the list whose items to move.
+     * @throws IllegalArgumentException if <tt>other</tt> is this list.
+     */
+    public void appendAll(LinkedList<E> other) {
+        insertAll(size, other);
+    }
+    
+    /**
+     * Moves all items of another <tt>LinkedList</tt> into this one, at the 
+     * specified position. Relinks the nodes of <tt>other</tt> instead of 
+     * copying them, and leaves <tt>other</tt> empty. Apart from finding the 
+     * position, takes O(1) time.
+     * 
+     * @param index the offset at which to insert the items.
+     * @param other the list whose items to move.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or 
+     *  <tt>index > size()</tt>.
+     * @throws IllegalArgumentException if <tt>other</tt> is this list.
+     */
+    public void insertAll(int index, LinkedList<E> other) {
+        if (other == this) {
+            throw new IllegalArgumentException("cannot insert a list into itself");
+        }
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        if (other.size == 0) {
+            return;
+        }
+        if (size == 0) {
+            first = other.first;
+            last = other.last;
+        } else if (index == 0) {
+            other.last.setNext(first);
+            first = other.first;
+        } else if (index == size) {
+            last.setNext(other.first);
+            last = other.last;
+        } else {
+            ListNode<E> next = getNodeAt(index);
+            next.getPrevious().setNext(other.first);
+            other.last.setNext(next);
+        }
+        size += other.size;
+        modCount++;
+        finger = null;
+        other.clear();
+    }
+    
+    /**
+     * Splits this <tt>LinkedList</tt> in two at the specified position. The
+     * items before <tt>index</tt> stay in this list, and the others are 
+     * moved, without copying, to a new list. Apart from finding the 
+     * position, takes O(1) time.
+     * 
+     * @param index the offset of the first item to move.
+     * @return a new <tt>LinkedList</tt> with the items from <tt>index</tt> 
+     *  onwards.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or 
+     *  <tt>index > size()</tt>.
+     */
+    public LinkedList<E> splitAt(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        LinkedList<E> tail = new LinkedList<E>();
+        if (index == size) {
+            return tail;
+        }
+        ListNode<E> node = index == 0 ? first : getNodeAt(index);
+        tail.first = node;
+        tail.last = last;
+        tail.size = size - index;
+        if (index == 0) {
+            clear();
+        } else {
+            last = node.getPrevious();
+            last.setNext(null);
+            node.setPrevious(null);
+            size = index;
+            modCount++;
+            finger = null;
+        }
+        return tail;
+    }
+    
+    /**
+     * Removes the items from <tt>from</tt>, inclusive, to <tt>to</tt>, 
+     * exclusive, and returns them as a new list. The nodes are moved rather 
+     * than copied. Apart from finding the positions, takes O(1) time.
+     * 
+     * @param from the offset of the first item to remove.
+     * @param to the offset that ends the range (exclusive).
+     * @return a new <tt>LinkedList</tt> with the removed items.
+     * @throws IndexOutOfBoundsException if <tt>from < 0</tt>, 
+     *  <tt>to > size()</tt> or <tt>from > to</tt>.
+     */
+    public LinkedList<E> removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException(String.format(
+                "from: %d, to: %d, size: %d", from, to, size));
+        }
+        LinkedList<E> range = splitAt(from);
+        appendAll(range.splitAt(to - from));
+        return range;
+    }
+    
+    /**
+     * Removes all items from this <tt>LinkedList</tt>.
+     */
+    public void clear() {
+        first = last = null;
+        size = 0;
+        modCount++;
+        finger = null;
+    }
+    
     /**
      * Returns the offset in this <tt>LinkedList</tt> of the first occurrence 
      * of the specified item.
@@ -263,6 +443,65 @@ public class LinkedList<E> {
         return -1;
     }
     
+    /**
+     * Returns an {@link Iterator} over the items in this <tt>LinkedList</tt>,
+     * from first to last.
+     * 
+     * @return a fail-fast {@link ListIterator}, positioned before the first 
+     *  item.
+     */
+    public Iterator<E> iterator() {
+        return listIterator(0);
+    }
+    
+    /**
+     * Returns a {@link ListIterator} over the items in this 
+     * <tt>LinkedList</tt>, starting at the specified position.
+     * 
+     * @param index the offset of the item that the first call to 
+     *  <tt>next()</tt> returns.
+     * @return a fail-fast {@link ListIterator}, positioned before the item at
+     *  <tt>index</tt>.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or 
+     *  <tt>index > size()</tt>.
+     */
+    public ListIterator<E> listIterator(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return new ListItr(index == size ? null : getNodeAt(index), index);
+    }
+    
+    /**
+     * Starts counting the lookups by offset and node allocations of this 
+     * <tt>LinkedList</tt>, if it does not do so already.
+     * 
+     * @return the {@link Metrics} of this <tt>LinkedList</tt>.
+     */
+    public Metrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new Metrics();
+        }
+        return metrics;
+    }
+    
+    /**
+     * Stops counting, and discards the {@link Metrics} of this 
+     * <tt>LinkedList</tt>.
+     */
+    public void disableMetrics() {
+        metrics = null;
+    }
+    
+    /**
+     * Gets the {@link Metrics} of this <tt>LinkedList</tt>.
+     * 
+     * @return the {@link Metrics}, or <tt>null</tt> if they are not enabled.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
     /**
      * Returns a string representation of this <tt>LinkedList</tt>.
      */
@@ -280,7 +519,57 @@ public class LinkedList<E> {
     }
     
     /**
-     * Gets the {@link ListNode} at the specified offset.
+     * Creates a new, unlinked node, and counts the allocation if metrics are
+     * enabled.
+     * 
+     * @param item the item of the node.
+     * @return the new node.
+     */
+    private ListNode<E> newNode(E item) {
+        if (metrics != null) {
+            metrics.recordAllocation();
+        }
+        return new ListNode<E>(item);
+    }
+    
+    /**
+     * Links a new node in before the specified node, which must not be the 
+     * first node in this <tt>LinkedList</tt>. Drops the finger.
+     * 
+     * @param item the item to add.
+     * @param next the node to link the new node in before.
+     * @return the new node.
+     */
+    private ListNode<E> linkBefore(E item, ListNode<E> next) {
+        ListNode<E> node = newNode(item);
+        node.setPrevious(next.getPrevious());
+        node.setNext(next);
+        size++;
+        modCount++;
+        finger = null;
+        return node;
+    }
+    
+    /**
+     * Unlinks the specified node, which must be neither the first nor the 
+     * last node in this <tt>LinkedList</tt>, and clears its links. Drops the
+     * finger.
+     * 
+     * @param node the node to unlink.
+     */
+    private void unlink(ListNode<E> node) {
+        node.getPrevious().setNext(node.getNext());
+        node.setPrevious(null);
+        node.setNext(null);
+        size--;
+        modCount++;
+        finger = null;
+    }
+    
+    /**
+     * Gets the {@link ListNode} at the specified offset, by walking from 
+     * whichever is closest of the first node, the last node and the finger.
+     * Moves the finger to the node that was found.
      * 
      * @param index the offset at which to retrieve the node.
      * @return the node at the specified offset.
@@ -292,7 +581,17 @@ public class LinkedList<E> {
             throw new IndexOutOfBoundsException(String.valueOf(index));
         }
         ListNode<E> node = null;
-        if (index < size / 2) {
+        int distance = Math.min(index, size - 1 - index);
+        if (finger != null && Math.abs(index - fingerIndex) < distance) {
+            distance = Math.abs(index - fingerIndex);
+            node = finger;
+            for (int i = fingerIndex; i < index; i++) {
+                node = node.getNext();
+            }
+            for (int i = fingerIndex; i > index; i--) {
+                node = node.getPrevious();
+            }
+        } else if (index < size / 2) {
             node = first;
             for (int i = 0; i < index; i++) {
                 node = node.getNext();
@@ -303,6 +602,131 @@ public class LinkedList<E> {
                 node = node.getPrevious();
             }
         }
+        finger = node;
+        fingerIndex = index;
+        if (metrics != null) {
+            metrics.recordLookup(distance);
+        }
         return node;
     }
-}
\ No newline at end of file
+    
+    /**
+     * A {@link ListIterator} that walks the nodes of this <tt>LinkedList</tt>
+     * directly. Removes, replaces and inserts items next to its position 
+     * without searching for it.
+     */
+    private class ListItr implements ListIterator<E> {
+        private ListNode<E> next;
+        private ListNode<E> lastReturned;
+        private int nextIndex;
+        private int expectedModCount;
+        
+        /**
+         * Constructs a new <tt>ListItr</tt>.
+         * 
+         * @param next the node at <tt>nextIndex</tt>, or <tt>null</tt> if 
+         *  positioned at the end of the list.
+         * @param nextIndex the offset of the item that <tt>next()</tt> 
+         *  returns.
+         */
+        ListItr(ListNode<E> next, int nextIndex) {
+            this.next = next;
+            this.nextIndex = nextIndex;
+            expectedModCount = modCount;
+        }
+        
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+        
+        public E next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.getNext();
+            nextIndex++;
+            return lastReturned.getItem();
+        }
+        
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+        
+        public E previous() {
+            checkForComodification();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            next = next == null ? last : next.getPrevious();
+            lastReturned = next;
+            nextIndex--;
+            return lastReturned.getItem();
+        }
+        
+        public int nextIndex() {
+            return nextIndex;
+        }
+        
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+        
+        public void remove() {
+            checkForComodification();
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            ListNode<E> lastNext = lastReturned.getNext();
+            if (lastReturned == first) {
+                removeFirst();
+            } else if (lastReturned == last) {
+                removeLast();
+            } else {
+                unlink(lastReturned);
+            }
+            if (next == lastReturned) { // removed after previous()
+                next = lastNext;
+            } else {
+                nextIndex--;
+            }
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+        
+        public void set(E item) {
+            checkForComodification();
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            lastReturned.setItem(item);
+        }
+        
+        public void add(E item) {
+            checkForComodification();
+            if (next == null) {
+                addLast(item);
+            } else if (next == first) {
+                addFirst(item);
+            } else {
+                linkBefore(item, next);
+            }
+            nextIndex++;
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+        
+        /**
+         * Checks that the list has not been changed other than through this
+         * iterator.
+         * 
+         * @throws ConcurrentModificationException if it has.
+         */
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package dat1;
+
+import java.util.Arrays;
+
+/**
+ * An ordered map from <tt>long</tt> keys to values, with the same interface
+ * as {@link BinaryTree}.
+ * <p>
+ * Keys are kept in a <tt>long[]</tt> and compared with the primitive
+ * comparison operators, so they are never boxed and no
+ * {@link Comparable#compareTo(Object)} calls are made. Apart from growing
+ * its arrays, a <tt>LongKeyTree</tt> does not allocate when keys are added
+ * or looked up.
+ * <p>
+ * As in an {@link ArrayTree}, the nodes are stored in arrays and link to
+ * their children by index. The tree is kept balanced as an AA tree, so its
+ * height never exceeds 2&middot;log<sub>2</sub>(n + 1). The slots of removed
+ * nodes are reused.
+ * <p>
+ * Because a {@link TreeTraverser} requires <tt>Comparable</tt> keys, a
+ * <tt>LongKeyTree</tt> cannot be traversed by one. Use {@link #asList()}
+ * instead.
+ *
+ * @author K. Atas
+ */
+public class LongKeyTree<V> extends AbstractArrayTree<V> {
+    private long[] keys;
+    private long key;
+
+    /**
+     * Constructs a new <tt>LongKeyTree</tt>.
+     */
+    public LongKeyTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new <tt>LongKeyTree</tt> with room for the specified number
+     * of key-value pairs before its arrays have to grow.
+     *
+     * @param capacity the initial capacity.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is negative.
+     */
+    public LongKeyTree(int capacity) {
+        super(capacity);
+        keys = new long[capacity + 1];
+    }
+
+    /**
+     * Adds a new key-value pair to this <tt>LongKeyTree</tt>. If <tt>key</tt>
+     * identifies an existing mapping, the value is replaced.
+     *
+     * @param key the lookup key.
+     * @param value the value to associate with <tt>key</tt>.
+     * @return the value that was previously associated with <tt>key</tt>,
+     *  otherwise <tt>null</tt>.
+     */
+    public V add(long key, V value) {
+        this.key = key;
+        return insert(value);
+    }
+
+    /**
+     * Gets the value associated with the specified key.
+     *
+     * @param key the lookup key.
+     * @return the value that <tt>key</tt> maps to.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public V get(long key) {
+        return values[findNode(key)];
+    }
+
+    /**
+     * Replaces the value associated with the specified key by a new value.
+     *
+     * @param key the lookup key.
+     * @param value a new value to associate with <tt>key</tt>.
+     * @return the previous value.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public V set(long key, V value) {
+        int node = findNode(key);
+        V oldValue = values[node];
+        values[node] = value;
+        return oldValue;
+    }
+
+    /**
+     * Removes a key and its associated value from this <tt>LongKeyTree</tt>.
+     *
+     * @param key the lookup key.
+     * @return the value that was removed.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public V remove(long key) {
+        V value = values[findNode(key)];
+        this.key = key;
+        delete();
+        return value;
+    }
+
+    int compareAt(int node) {
+        long nodeKey = keys[node];
+        return key < nodeKey ? -1 : key > nodeKey ? 1 : 0;
+    }
+
+    void storeKey(int node) {
+        keys[node] = key;
+    }
+
+    void copyKey(int from, int to) {
+        keys[to] = keys[from];
+    }
+
+    void resizeKeys(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    /**
+     * Finds the index of the node with the specified lookup key.
+     *
+     * @param key the lookup key.
+     * @return the index of the node.
+     * @throws NoSuchKeyException if there is no such node in this
+     *  <tt>LongKeyTree</tt>.
+     */
+    private int findNode(long key) {
+        int node = root;
+        while (node != NIL) {
+            long nodeKey = keys[node];
+            if (key < nodeKey) {
+                node = left(node);
+            } else if (key > nodeKey) {
+                node = right(node);
+            } else {
+                return node;
+            }
+        }
+        throw new NoSuchKeyException(String.valueOf(key));
+    }
+}
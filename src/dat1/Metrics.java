@@ -0,0 +1,196 @@
+package dat1;
+
+/**
+ * Counts what happens on the hot paths of a data structure, to tell apart
+ * the causes of slow operations: a tree that has degenerated into long
+ * search paths, keys that are compared more often than expected, nodes that
+ * are allocated more often than expected, or lists that are walked too far
+ * to reach an offset.
+ * <p>
+ * Metrics are opt-in. A {@link BinaryTree} or {@link LinkedList} only keeps
+ * count after <tt>enableMetrics()</tt> has been called on it; until then,
+ * each event costs a single <tt>null</tt> check. The counters that do not
+ * apply to a data structure stay zero.
+ * <p>
+ * The counters can be read directly, copied into an immutable
+ * {@link MetricsSnapshot}, or published over JMX, since a <tt>Metrics</tt>
+ * is an MXBean:
+ * <pre>
+ *   Metrics metrics = tree.enableMetrics();
+ *   ManagementFactory.getPlatformMBeanServer().registerMBean(metrics,
+ *     new ObjectName("dat1:type=BinaryTree,name=index"));
+ * </pre>
+ * Like the data structures themselves, a <tt>Metrics</tt> is not thread
+ * safe. Only the thread that uses the data structure updates the counters,
+ * and they are plain fields, so that counting stays cheap. A thread that
+ * reads them without synchronization, such as a JMX console, may therefore
+ * see counters that are out of date or that do not agree with each other,
+ * and on a 32-bit JVM even a <tt>long</tt> counter that is half updated.
+ * <p>
+ * Reading the metrics never touches the data structure itself. The height
+ * of a tree is kept up to date by the tree, as the number of nodes on the
+ * deepest path that an insertion made since the tree was last rebuilt.
+ * Removals do not lower it, so it is an upper bound on the actual height.
+ * It is <tt>volatile</tt>, since it changes rarely.
+ *
+ * @see MetricsMXBean
+ * @author K. Atas
+ */
+public class Metrics implements MetricsMXBean {
+    private volatile int height;
+    private long searches;
+    private long pathLength;
+    private int maxPathLength;
+    private long comparisons;
+    private long nodeAllocations;
+    private long indexLookups;
+    private long hops;
+    private int maxHops;
+
+    /**
+     * Constructs a new <tt>Metrics</tt>, with all counters at zero. Only the
+     * data structures create their own <tt>Metrics</tt>.
+     */
+    Metrics() {
+        height = -1;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getSearches() {
+        return searches;
+    }
+
+    public double getAveragePathLength() {
+        return average(pathLength, searches);
+    }
+
+    public int getMaxPathLength() {
+        return maxPathLength;
+    }
+
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    public double getComparisonsPerSearch() {
+        return average(comparisons, searches);
+    }
+
+    public long getNodeAllocations() {
+        return nodeAllocations;
+    }
+
+    public long getIndexLookups() {
+        return indexLookups;
+    }
+
+    public double getAverageHops() {
+        return average(hops, indexLookups);
+    }
+
+    public int getMaxHops() {
+        return maxHops;
+    }
+
+    public void reset() {
+        searches = pathLength = comparisons = 0;
+        nodeAllocations = indexLookups = hops = 0;
+        maxPathLength = maxHops = 0;
+    }
+
+    /**
+     * Copies the current counters, and the height, into a
+     * {@link MetricsSnapshot}.
+     *
+     * @return a new {@link MetricsSnapshot}.
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(height, searches, pathLength,
+            maxPathLength, comparisons, nodeAllocations, indexLookups, hops,
+            maxHops);
+    }
+
+    /**
+     * Returns a string representation of the current counters.
+     */
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * Sets the height of the tree, after it has been measured.
+     *
+     * @param height the number of nodes on the longest path from the root
+     *  node down to a leaf.
+     */
+    void resetHeight(int height) {
+        this.height = height;
+    }
+
+    /**
+     * Records an insertion into a tree, which raises the height if the new
+     * node is deeper than any before it.
+     *
+     * @param depth the number of nodes on the path from the root node down
+     *  to the new node.
+     */
+    void recordInsertion(int depth) {
+        if (depth > height) {
+            height = depth;
+        }
+    }
+
+    /**
+     * Records a search from the root node down.
+     *
+     * @param length the number of nodes that the search visited.
+     */
+    void recordSearch(int length) {
+        searches++;
+        pathLength += length;
+        if (length > maxPathLength) {
+            maxPathLength = length;
+        }
+    }
+
+    /**
+     * Records a comparison of two keys.
+     */
+    void recordComparison() {
+        comparisons++;
+    }
+
+    /**
+     * Records the creation of a node.
+     */
+    void recordAllocation() {
+        nodeAllocations++;
+    }
+
+    /**
+     * Records a lookup of a node by its offset.
+     *
+     * @param count the number of links that the lookup followed.
+     */
+    void recordLookup(int count) {
+        indexLookups++;
+        hops += count;
+        if (count > maxHops) {
+            maxHops = count;
+        }
+    }
+
+    /**
+     * Divides a total by a count.
+     *
+     * @param total the total.
+     * @param count the count.
+     * @return the average, or zero if <tt>count</tt> is zero.
+     */
+    static double average(long total, long count) {
+        return count == 0 ? 0 : (double)total / count;
+    }
+}
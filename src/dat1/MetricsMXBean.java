@@ -0,0 +1,95 @@
+package dat1;
+
+/**
+ * The management interface of {@link Metrics}, through which the counters
+ * of a data structure can be read, and reset, over JMX.
+ *
+ * @see Metrics
+ * @author K. Atas
+ */
+public interface MetricsMXBean {
+    /**
+     * Gets the height of the tree: the number of nodes on the deepest path
+     * that an insertion made since the tree was last rebuilt. Removals do
+     * not lower it, so it is an upper bound on the actual height. Kept up to
+     * date by the tree, so reading it takes O(1) time and does not touch the
+     * tree.
+     *
+     * @return the height of the tree, or -1 if the data structure is not a
+     *  tree.
+     */
+    int getHeight();
+
+    /**
+     * Gets the number of searches from the root node down, by lookups,
+     * insertions and removals.
+     *
+     * @return the number of searches.
+     */
+    long getSearches();
+
+    /**
+     * Gets the average number of nodes that a search visited.
+     *
+     * @return the average path length, or zero if there were no searches.
+     */
+    double getAveragePathLength();
+
+    /**
+     * Gets the largest number of nodes that a single search visited.
+     *
+     * @return the maximum path length.
+     */
+    int getMaxPathLength();
+
+    /**
+     * Gets the number of times that two keys were compared.
+     *
+     * @return the number of comparisons.
+     */
+    long getComparisons();
+
+    /**
+     * Gets the average number of comparisons per search.
+     *
+     * @return the number of comparisons per search, or zero if there were
+     *  no searches.
+     */
+    double getComparisonsPerSearch();
+
+    /**
+     * Gets the number of nodes that were created.
+     *
+     * @return the number of node allocations.
+     */
+    long getNodeAllocations();
+
+    /**
+     * Gets the number of times that a node was looked up by its offset.
+     *
+     * @return the number of lookups by offset.
+     */
+    long getIndexLookups();
+
+    /**
+     * Gets the average number of links that were followed to look up a node
+     * by its offset.
+     *
+     * @return the average number of hops per lookup, or zero if there were
+     *  no lookups.
+     */
+    double getAverageHops();
+
+    /**
+     * Gets the largest number of links that were followed to look up a
+     * single node by its offset.
+     *
+     * @return the maximum number of hops.
+     */
+    int getMaxHops();
+
+    /**
+     * Sets all counters back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,143 @@
+package dat1;
+
+/**
+ * An immutable copy of the counters of a {@link Metrics}, taken at one
+ * point in time. Snapshots can be kept, logged or compared, while the
+ * counters themselves keep changing.
+ *
+ * @see Metrics#snapshot()
+ * @author K. Atas
+ */
+public class MetricsSnapshot {
+    private final int height;
+    private final long searches;
+    private final long pathLength;
+    private final int maxPathLength;
+    private final long comparisons;
+    private final long nodeAllocations;
+    private final long indexLookups;
+    private final long hops;
+    private final int maxHops;
+
+    /**
+     * Constructs a new <tt>MetricsSnapshot</tt>.
+     *
+     * @param height the height of the tree, or -1.
+     * @param searches the number of searches.
+     * @param pathLength the total number of nodes visited by the searches.
+     * @param maxPathLength the largest number of nodes visited by a search.
+     * @param comparisons the number of comparisons.
+     * @param nodeAllocations the number of nodes created.
+     * @param indexLookups the number of lookups by offset.
+     * @param hops the total number of links followed by the lookups.
+     * @param maxHops the largest number of links followed by a lookup.
+     */
+    MetricsSnapshot(int height, long searches, long pathLength,
+            int maxPathLength, long comparisons, long nodeAllocations,
+            long indexLookups, long hops, int maxHops) {
+        this.height = height;
+        this.searches = searches;
+        this.pathLength = pathLength;
+        this.maxPathLength = maxPathLength;
+        this.comparisons = comparisons;
+        this.nodeAllocations = nodeAllocations;
+        this.indexLookups = indexLookups;
+        this.hops = hops;
+        this.maxHops = maxHops;
+    }
+
+    /**
+     * @return the height of the tree, or -1 if the data structure is not a
+     *  tree.
+     * @see MetricsMXBean#getHeight()
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of searches.
+     * @see MetricsMXBean#getSearches()
+     */
+    public long getSearches() {
+        return searches;
+    }
+
+    /**
+     * @return the average path length, or zero if there were no searches.
+     * @see MetricsMXBean#getAveragePathLength()
+     */
+    public double getAveragePathLength() {
+        return Metrics.average(pathLength, searches);
+    }
+
+    /**
+     * @return the maximum path length.
+     * @see MetricsMXBean#getMaxPathLength()
+     */
+    public int getMaxPathLength() {
+        return maxPathLength;
+    }
+
+    /**
+     * @return the number of comparisons.
+     * @see MetricsMXBean#getComparisons()
+     */
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * @return the number of comparisons per search, or zero if there were
+     *  no searches.
+     * @see MetricsMXBean#getComparisonsPerSearch()
+     */
+    public double getComparisonsPerSearch() {
+        return Metrics.average(comparisons, searches);
+    }
+
+    /**
+     * @return the number of node allocations.
+     * @see MetricsMXBean#getNodeAllocations()
+     */
+    public long getNodeAllocations() {
+        return nodeAllocations;
+    }
+
+    /**
+     * @return the number of lookups by offset.
+     * @see MetricsMXBean#getIndexLookups()
+     */
+    public long getIndexLookups() {
+        return indexLookups;
+    }
+
+    /**
+     * @return the average number of hops per lookup, or zero if there were
+     *  no lookups.
+     * @see MetricsMXBean#getAverageHops()
+     */
+    public double getAverageHops() {
+        return Metrics.average(hops, indexLookups);
+    }
+
+    /**
+     * @return the maximum number of hops.
+     * @see MetricsMXBean#getMaxHops()
+     */
+    public int getMaxHops() {
+        return maxHops;
+    }
+
+    /**
+     * Returns a string representation of this <tt>MetricsSnapshot</tt>.
+     */
+    public String toString() {
+        return String.format("height=%d, searches=%d, avgPath=%.2f, "
+            + "maxPath=%d, comparisons=%d (%.2f/search), allocations=%d, "
+            + "lookups=%d, avgHops=%.2f, maxHops=%d", height, searches,
+            getAveragePathLength(), maxPathLength, comparisons,
+            getComparisonsPerSearch(), nodeAllocations, indexLookups,
+            getAverageHops(), maxHops);
+    }
+}
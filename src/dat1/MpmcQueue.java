@@ -0,0 +1,98 @@
+package dat1;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link ConcurrentQueue} for any number of producer and consumer threads.
+ * <p>
+ * The items are kept in a ring buffer, in which every slot has a sequence
+ * number that tells whose turn it is to use the slot. A producer claims the
+ * slot at the tail by advancing the tail with a compare-and-set, stores its
+ * item and then bumps the sequence number of the slot, to tell the consumers
+ * that the item is there. A consumer claims the slot at the head in the same
+ * way, takes the item and then moves the sequence number a whole lap ahead,
+ * to tell the producers that the slot is free again. Threads never lock, and
+ * only retry when another thread claimed the same slot first.
+ * <p>
+ * Because a slot is only handed over once its item has been stored or
+ * taken, a thread that is suspended between claiming a slot and updating
+ * its sequence number can hold up the threads that want to use the slot in
+ * the next lap. The other slots remain available in the meantime.
+ *
+ * @author K. Atas
+ */
+public class MpmcQueue<E> extends ConcurrentQueue<E> {
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final Counter head = new Counter();
+    private final Counter tail = new Counter();
+
+    /**
+     * Constructs a new <tt>MpmcQueue</tt>.
+     *
+     * @param capacity the number of items the queue must be able to hold.
+     *  Rounded up to a power of two.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is less than one
+     *  or greater than 2<sup>30</sup>.
+     */
+    public MpmcQueue(int capacity) {
+        items = new Object[powerOfTwo(capacity)];
+        mask = items.length - 1;
+        sequences = new AtomicLongArray(items.length);
+        for (int i = 0; i < items.length; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public int size() {
+        long head = this.head.get();
+        return (int)Math.max(0, Math.min(tail.get() - head, items.length));
+    }
+
+    public boolean offer(E item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        while (true) {
+            long tail = this.tail.get();
+            int index = (int)tail & mask;
+            long turn = sequences.get(index) - tail;
+            if (turn == 0) { // the slot is free in this lap
+                if (this.tail.compareAndSet(tail, tail + 1)) {
+                    items[index] = item;
+                    sequences.lazySet(index, tail + 1); // publishes the item
+                    return true;
+                }
+            } else if (turn < 0) { // the slot still holds last lap's item
+                return false;
+            }
+            // another producer claimed the slot first
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        while (true) {
+            long head = this.head.get();
+            int index = (int)head & mask;
+            long turn = sequences.get(index) - (head + 1);
+            if (turn == 0) { // the slot holds an item in this lap
+                if (this.head.compareAndSet(head, head + 1)) {
+                    E item = (E)items[index];
+                    items[index] = null; // let go of the item
+                    // frees the slot for the next lap
+                    sequences.lazySet(index, head + items.length);
+                    return item;
+                }
+            } else if (turn < 0) { // the slot has not been filled yet
+                return null;
+            }
+            // another consumer claimed the slot first
+        }
+    }
+}
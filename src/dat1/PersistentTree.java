@@ -0,0 +1,426 @@
+package dat1;
+
+/**
+ * An immutable, ordered key-value map with the same lookup interface as
+ * {@link BinaryTree}.
+ * <p>
+ * Instead of changing the tree, <tt>add()</tt>, <tt>set()</tt> and
+ * <tt>remove()</tt> return a new version of it that reflects the change. The
+ * new version copies only the nodes on the path from the root down to the
+ * changed node, and shares all other nodes with the version it was derived
+ * from. An update therefore takes O(log n) time and space, and the old
+ * version stays intact.
+ * <p>
+ * Because a version never changes, taking a snapshot is a matter of keeping
+ * a reference to it, and any number of threads can read a version without
+ * locking. A typical setup has a single writer publish each new version
+ * through a <tt>volatile</tt> field:
+ * <pre>
+ *   private volatile PersistentTree&lt;String, String&gt; config =
+ *       new PersistentTree&lt;String, String&gt;();
+ *
+ *   void update(String key, String value) { // single writer
+ *     config = config.add(key, value);
+ *   }
+ *
+ *   PersistentTree&lt;String, String&gt; snapshot() { // any reader
+ *     return config;
+ *   }
+ * </pre>
+ * The tree is kept balanced by the same rules as an {@link AVLTree}. Since
+ * nodes are shared between versions, they do not have a meaningful parent,
+ * and are not exposed.
+ *
+ * @author K. Atas
+ */
+public class PersistentTree<K extends Comparable<K>, V> {
+    private final Node<K, V> root;
+    private final int size;
+
+    /**
+     * Constructs a new, empty <tt>PersistentTree</tt>.
+     */
+    public PersistentTree() {
+        this(null, 0);
+    }
+
+    /**
+     * Constructs a new version of a <tt>PersistentTree</tt>.
+     *
+     * @param root the root node of the version.
+     * @param size the number of key-value mappings in the version.
+     */
+    private PersistentTree(Node<K, V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Gets the size of this <tt>PersistentTree</tt>.
+     *
+     * @return the number of key-value mappings in this
+     *  <tt>PersistentTree</tt>.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a version of this <tt>PersistentTree</tt> to which the
+     * specified key-value pair has been added. If <tt>key</tt> identifies an
+     * existing mapping, the value is replaced.
+     *
+     * @param key the lookup key.
+     * @param value the value to associate with <tt>key</tt>.
+     * @return the new version, or this version if <tt>key</tt> already maps
+     *  to <tt>value</tt>.
+     */
+    public PersistentTree<K, V> add(K key, V value) {
+        boolean[] found = new boolean[1];
+        Node<K, V> newRoot = insert(root, key, value, found);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentTree<K, V>(newRoot, found[0] ? size : size + 1);
+    }
+
+    /**
+     * Determines whether this <tt>PersistentTree</tt> contains the specified
+     * key.
+     *
+     * @param key the lookup key.
+     * @return <tt>true</tt> if there is a mapping for <tt>key</tt>,
+     *  <tt>false</tt> otherwise.
+     */
+    public boolean contains(K key) {
+        return findNode(key) != null;
+    }
+
+    /**
+     * Gets the value associated with the specified key.
+     *
+     * @param key the lookup key.
+     * @return the value that <tt>key</tt> maps to.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public V get(K key) {
+        Node<K, V> node = findNode(key);
+        if (node == null) {
+            throw new NoSuchKeyException(String.valueOf(key));
+        }
+        return node.getValue();
+    }
+
+    /**
+     * Returns a version of this <tt>PersistentTree</tt> in which the value
+     * associated with the specified key has been replaced by a new value.
+     *
+     * @param key the lookup key.
+     * @param value a new value to associate with <tt>key</tt>.
+     * @return the new version, or this version if <tt>key</tt> already maps
+     *  to <tt>value</tt>.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public PersistentTree<K, V> set(K key, V value) {
+        boolean[] found = new boolean[1];
+        Node<K, V> newRoot = insert(root, key, value, found);
+        if (!found[0]) {
+            throw new NoSuchKeyException(String.valueOf(key));
+        }
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentTree<K, V>(newRoot, size);
+    }
+
+    /**
+     * Returns a version of this <tt>PersistentTree</tt> from which the
+     * specified key and its associated value have been removed.
+     *
+     * @param key the lookup key.
+     * @return the new version.
+     * @throws NoSuchKeyException if the key-value mapping is not found.
+     */
+    public PersistentTree<K, V> remove(K key) {
+        Node<K, V> newRoot = delete(root, key);
+        if (newRoot == root) { // removing a key always copies the root
+            throw new NoSuchKeyException(String.valueOf(key));
+        }
+        return new PersistentTree<K, V>(newRoot, size - 1);
+    }
+
+    /**
+     * Gets the height of this <tt>PersistentTree</tt>: the number of nodes on
+     * the longest path from the root node down to a leaf. Takes O(1) time.
+     *
+     * @return the height, or zero if this <tt>PersistentTree</tt> is empty.
+     */
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * Returns the contents of this <tt>PersistentTree</tt> as a
+     * {@link LinkedList}.
+     *
+     * @return a {@link LinkedList} containing the items in this
+     *  <tt>PersistentTree</tt>, in ascending order of their keys.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends V> LinkedList<E> asList() {
+        LinkedList<E> list = new LinkedList<E>();
+        appendValues(root, (LinkedList<V>)list);
+        return list;
+    }
+
+    /**
+     * Returns a string representation of this <tt>PersistentTree</tt>.
+     */
+    public String toString() {
+        return asList().toString();
+    }
+
+    /**
+     * Finds the node with the specified lookup key.
+     *
+     * @param key the lookup key.
+     * @return the node with the specified key, or <tt>null</tt> if it is not
+     *  found.
+     */
+    private Node<K, V> findNode(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int sortOrder = compare(key, node.getKey());
+            if (sortOrder < 0) {
+                node = left(node);
+            } else if (sortOrder > 0) {
+                node = right(node);
+            } else {
+                break;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns a copy of the subtree rooted at <tt>node</tt>, in which
+     * <tt>key</tt> is mapped to <tt>value</tt>. Only the nodes on the path
+     * down to <tt>key</tt> are copied. If <tt>key</tt> already maps to
+     * <tt>value</tt>, nothing is copied and <tt>node</tt> itself is returned.
+     *
+     * @param node the root of the subtree, or <tt>null</tt>.
+     * @param key the lookup key.
+     * @param value the value to associate with <tt>key</tt>.
+     * @param found its only element is set to <tt>true</tt> if <tt>key</tt>
+     *  was already present.
+     * @return the root of the new subtree.
+     */
+    private Node<K, V> insert(Node<K, V> node, K key, V value,
+            boolean[] found) {
+        if (node == null) {
+            return new Node<K, V>(key, value, null, null);
+        }
+        int sortOrder = compare(key, node.getKey());
+        if (sortOrder < 0) {
+            Node<K, V> left = insert(left(node), key, value, found);
+            if (left == left(node)) {
+                return node;
+            }
+            return balance(node.getKey(), node.getValue(), left, right(node));
+        }
+        if (sortOrder > 0) {
+            Node<K, V> right = insert(right(node), key, value, found);
+            if (right == right(node)) {
+                return node;
+            }
+            return balance(node.getKey(), node.getValue(), left(node), right);
+        }
+        found[0] = true;
+        if (node.getValue() == value) {
+            return node;
+        }
+        return new Node<K, V>(key, value, left(node), right(node));
+    }
+
+    /**
+     * Returns a copy of the subtree rooted at <tt>node</tt>, from which
+     * <tt>key</tt> has been removed. Only the nodes on the path down to
+     * <tt>key</tt> and its successor are copied. If <tt>key</tt> is not
+     * present, nothing is copied and <tt>node</tt> itself is returned.
+     *
+     * @param node the root of the subtree, or <tt>null</tt>.
+     * @param key the lookup key.
+     * @return the root of the new subtree, or <tt>null</tt> if it is empty.
+     */
+    private Node<K, V> delete(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int sortOrder = compare(key, node.getKey());
+        if (sortOrder < 0) {
+            Node<K, V> left = delete(left(node), key);
+            if (left == left(node)) {
+                return node;
+            }
+            return balance(node.getKey(), node.getValue(), left, right(node));
+        }
+        if (sortOrder > 0) {
+            Node<K, V> right = delete(right(node), key);
+            if (right == right(node)) {
+                return node;
+            }
+            return balance(node.getKey(), node.getValue(), left(node), right);
+        }
+        if (left(node) == null) {
+            return right(node);
+        }
+        if (right(node) == null) {
+            return left(node);
+        }
+        Node<K, V> successor = right(node);
+        while (left(successor) != null) {
+            successor = left(successor);
+        }
+        return balance(successor.getKey(), successor.getValue(),
+            left(node), deleteFirst(right(node)));
+    }
+
+    /**
+     * Returns a copy of the subtree rooted at <tt>node</tt>, from which the
+     * node with the smallest key has been removed.
+     *
+     * @param node the root of the subtree.
+     * @return the root of the new subtree, or <tt>null</tt> if it is empty.
+     */
+    private Node<K, V> deleteFirst(Node<K, V> node) {
+        if (left(node) == null) {
+            return right(node);
+        }
+        return balance(node.getKey(), node.getValue(),
+            deleteFirst(left(node)), right(node));
+    }
+
+    /**
+     * Creates a new node with the specified key, value and subtrees, whose
+     * heights may differ by at most two. Rotates if they differ by two, to
+     * restore the balance.
+     *
+     * @param key the key of the new node.
+     * @param value the value of the new node.
+     * @param left the left subtree.
+     * @param right the right subtree.
+     * @return the root of the balanced subtree.
+     */
+    private Node<K, V> balance(K key, V value, Node<K, V> left,
+            Node<K, V> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left(left)) >= height(right(left))) {
+                return new Node<K, V>(left.getKey(), left.getValue(),
+                    left(left), new Node<K, V>(key, value, right(left), right));
+            }
+            Node<K, V> pivot = right(left);
+            return new Node<K, V>(pivot.getKey(), pivot.getValue(),
+                new Node<K, V>(left.getKey(), left.getValue(),
+                    left(left), left(pivot)),
+                new Node<K, V>(key, value, right(pivot), right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right(right)) >= height(left(right))) {
+                return new Node<K, V>(right.getKey(), right.getValue(),
+                    new Node<K, V>(key, value, left, left(right)), right(right));
+            }
+            Node<K, V> pivot = left(right);
+            return new Node<K, V>(pivot.getKey(), pivot.getValue(),
+                new Node<K, V>(key, value, left, left(pivot)),
+                new Node<K, V>(right.getKey(), right.getValue(),
+                    right(pivot), right(right)));
+        }
+        return new Node<K, V>(key, value, left, right);
+    }
+
+    /**
+     * Appends the values in the subtree rooted at <tt>node</tt> to a list,
+     * in ascending order of their keys.
+     *
+     * @param node the root of the subtree, or <tt>null</tt>.
+     * @param list the list to append to.
+     */
+    private void appendValues(Node<K, V> node, LinkedList<V> list) {
+        if (node != null) {
+            appendValues(left(node), list);
+            list.addLast(node.getValue());
+            appendValues(right(node), list);
+        }
+    }
+
+    /**
+     * Compares the specified lookup keys <tt>x</tt> and <tt>y</tt> for order.
+     *
+     * @param x the first key.
+     * @param y the second key.
+     * @return a negative integer, zero, or a positive integer as <tt>x</tt> is
+     *  less than, equal to, or greater than <tt>y</tt>.
+     * @see Comparable#compareTo(T)
+     */
+    private int compare(K x, K y) {
+        if (x == null || y == null) { // handle null keys
+            if (x == y) { // both null
+                return 0; // two nulls are equal
+            }
+            return x == null ? -1 : 1; // null < anything else
+        }
+        return x.compareTo(y);
+    }
+
+    /**
+     * Gets the left child of the specified node.
+     * 
+     * @param node a node.
+     * @return the left child of <tt>node</tt>, or <tt>null</tt>.
+     */
+    private static <K extends Comparable<K>, V> Node<K, V> left(Node<K, V> node) {
+        return (Node<K, V>)node.getLeftChild();
+    }
+
+    /**
+     * Gets the right child of the specified node.
+     * 
+     * @param node a node.
+     * @return the right child of <tt>node</tt>, or <tt>null</tt>.
+     */
+    private static <K extends Comparable<K>, V> Node<K, V> right(Node<K, V> node) {
+        return (Node<K, V>)node.getRightChild();
+    }
+
+    /**
+     * Gets the height of the subtree rooted at the specified node.
+     * 
+     * @param node a node or <tt>null</tt>.
+     * @return the height of <tt>node</tt>, or zero if it is <tt>null</tt>.
+     */
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * A node in a <tt>PersistentTree</tt>. Never changes after it has been
+     * constructed.
+     */
+    private static class Node<K extends Comparable<K>, V> extends TreeNode<K, V> {
+        final int height;
+
+        /**
+         * Constructs a new <tt>Node</tt>.
+         *
+         * @param key the key of this node.
+         * @param value the value of this node.
+         * @param left the left child of this node, or <tt>null</tt>.
+         * @param right the right child of this node, or <tt>null</tt>.
+         */
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            super(key, value, left, right);
+            height = 1 + Math.max(PersistentTree.height(left),
+                PersistentTree.height(right));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dat1;
+
+/**
+ * Thrown to indicate that <tt>enqueue()</tt> was invoked on a bounded queue, 
+ * such as a {@link ConcurrentQueue}, that is full.
+ * 
+ * @author K. Atas
+ */
+public class QueueFullException extends RuntimeException {
+    /**
+     * Constructs a new <tt>QueueFullException</tt>.
+     */
+    public QueueFullException() {
+        super();
+    }
+    
+    /**
+     * Constructs a new <tt>QueueFullException</tt> given the error message.
+     * 
+     * @param message details the error condition.
+     */
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,222 @@
+package dat1;
+
+/**
+ * A self-balancing {@link BinaryTree}. Every node in a <tt>RedBlackTree</tt>
+ * is colored either red or black, and the tree maintains the following
+ * invariants:
+ * <ul>
+ *   <li>the root node is black;</li>
+ *   <li>a red node does not have a red child;</li>
+ *   <li>every path from a node down to any of its missing (<tt>null</tt>)
+ *   children passes through the same number of black nodes.</li>
+ * </ul>
+ * Together these guarantee that the height of the tree never exceeds
+ * 2&middot;log<sub>2</sub>(n + 1), regardless of the order in which keys are
+ * added. Lookups, insertions and removals therefore take O(log n) time, even
+ * for input that would degenerate a plain <tt>BinaryTree</tt> into a linked
+ * list, such as keys that are added in sorted order.
+ * <p>
+ * The nodes in a <tt>RedBlackTree</tt> are represented by objects of type
+ * {@link RedBlackTreeNode}.
+ *
+ * @author K. Atas
+ */
+public class RedBlackTree<K extends Comparable<K>, V> extends BinaryTree<K, V> {
+
+    /**
+     * Constructs a new <tt>RedBlackTree</tt>.
+     */
+    public RedBlackTree() {
+        super();
+    }
+
+    /**
+     * Creates a new, red {@link RedBlackTreeNode}.
+     */
+    protected TreeNode<K, V> createNode(K key, V value) {
+        return new RedBlackTreeNode<K, V>(key, value);
+    }
+
+    /**
+     * Does nothing, since a <tt>RedBlackTree</tt> keeps itself balanced.
+     */
+    protected void rebuild(TreeNode<K, V> node) {
+    }
+
+    /**
+     * Restores the red-black invariants after <tt>node</tt>, which is red,
+     * was inserted.
+     */
+    protected void afterInsertion(TreeNode<K, V> node) {
+        while (node != getRoot() && isRed(node.getParent())) {
+            TreeNode<K, V> parent = node.getParent();
+            TreeNode<K, V> grandparent = parent.getParent();
+            if (parent == grandparent.getLeftChild()) {
+                TreeNode<K, V> uncle = grandparent.getRightChild();
+                if (isRed(uncle)) {
+                    setRed(parent, false);
+                    setRed(uncle, false);
+                    setRed(grandparent, true);
+                    node = grandparent;
+                } else {
+                    if (node == parent.getRightChild()) {
+                        node = parent;
+                        rotateLeft(node);
+                        parent = node.getParent();
+                    }
+                    setRed(parent, false);
+                    setRed(grandparent, true);
+                    rotateRight(grandparent);
+                }
+            } else {
+                TreeNode<K, V> uncle = grandparent.getLeftChild();
+                if (isRed(uncle)) {
+                    setRed(parent, false);
+                    setRed(uncle, false);
+                    setRed(grandparent, true);
+                    node = grandparent;
+                } else {
+                    if (node == parent.getLeftChild()) {
+                        node = parent;
+                        rotateRight(node);
+                        parent = node.getParent();
+                    }
+                    setRed(parent, false);
+                    setRed(grandparent, true);
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+        setRed(getRoot(), false);
+    }
+
+    /**
+     * Unlinks <tt>node</tt> and restores the red-black invariants.
+     */
+    protected void removeNode(TreeNode<K, V> node) {
+        TreeNode<K, V> child;
+        TreeNode<K, V> parent;
+        boolean removedRed = isRed(node);
+        if (node.getLeftChild() == null) {
+            child = node.getRightChild();
+            parent = node.getParent();
+            replace(node, child);
+        } else if (node.getRightChild() == null) {
+            child = node.getLeftChild();
+            parent = node.getParent();
+            replace(node, child);
+        } else {
+            TreeNode<K, V> successor = node.getRightChild();
+            while (successor.getLeftChild() != null) {
+                successor = successor.getLeftChild();
+            }
+            removedRed = isRed(successor);
+            child = successor.getRightChild();
+            if (successor.getParent() == node) {
+                parent = successor;
+            } else {
+                parent = successor.getParent();
+                replace(successor, child);
+                successor.setRightChild(node.getRightChild());
+            }
+            replace(node, successor);
+            successor.setLeftChild(node.getLeftChild());
+            setRed(successor, isRed(node));
+        }
+        updateSubtreeSizes(parent);
+        if (!removedRed) {
+            afterRemoval(child, parent);
+        }
+    }
+
+    /**
+     * Restores the red-black invariants after a black node was removed from
+     * the position that is now occupied by <tt>node</tt>.
+     *
+     * @param node the node that took the place of the removed node. May be
+     *  <tt>null</tt>.
+     * @param parent the parent of <tt>node</tt>.
+     */
+    private void afterRemoval(TreeNode<K, V> node, TreeNode<K, V> parent) {
+        while (node != getRoot() && !isRed(node)) {
+            if (node == parent.getLeftChild()) {
+                TreeNode<K, V> sibling = parent.getRightChild();
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parent, true);
+                    rotateLeft(parent);
+                    sibling = parent.getRightChild();
+                }
+                if (!isRed(sibling.getLeftChild())
+                        && !isRed(sibling.getRightChild())) {
+                    setRed(sibling, true);
+                    node = parent;
+                    parent = node.getParent();
+                } else {
+                    if (!isRed(sibling.getRightChild())) {
+                        setRed(sibling.getLeftChild(), false);
+                        setRed(sibling, true);
+                        rotateRight(sibling);
+                        sibling = parent.getRightChild();
+                    }
+                    setRed(sibling, isRed(parent));
+                    setRed(parent, false);
+                    setRed(sibling.getRightChild(), false);
+                    rotateLeft(parent);
+                    node = getRoot();
+                }
+            } else {
+                TreeNode<K, V> sibling = parent.getLeftChild();
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parent, true);
+                    rotateRight(parent);
+                    sibling = parent.getLeftChild();
+                }
+                if (!isRed(sibling.getLeftChild())
+                        && !isRed(sibling.getRightChild())) {
+                    setRed(sibling, true);
+                    node = parent;
+                    parent = node.getParent();
+                } else {
+                    if (!isRed(sibling.getLeftChild())) {
+                        setRed(sibling.getRightChild(), false);
+                        setRed(sibling, true);
+                        rotateLeft(sibling);
+                        sibling = parent.getLeftChild();
+                    }
+                    setRed(sibling, isRed(parent));
+                    setRed(parent, false);
+                    setRed(sibling.getLeftChild(), false);
+                    rotateRight(parent);
+                    node = getRoot();
+                }
+            }
+        }
+        setRed(node, false);
+    }
+
+    /**
+     * Determines whether the specified node is red. Missing (<tt>null</tt>)
+     * nodes count as black.
+     *
+     * @param node a {@link RedBlackTreeNode} or <tt>null</tt>.
+     * @return <tt>true</tt> if <tt>node</tt> is red, <tt>false</tt> otherwise.
+     */
+    private static boolean isRed(TreeNode<?, ?> node) {
+        return node != null && ((RedBlackTreeNode<?, ?>)node).isRed();
+    }
+
+    /**
+     * Colors the specified node either red or black. Does nothing if
+     * <tt>node</tt> is <tt>null</tt>.
+     *
+     * @param node a {@link RedBlackTreeNode} or <tt>null</tt>.
+     * @param red <tt>true</tt> for red, <tt>false</tt> for black.
+     */
+    private static void setRed(TreeNode<?, ?> node, boolean red) {
+        if (node != null) {
+            ((RedBlackTreeNode<?, ?>)node).setRed(red);
+        }
+    }
+}
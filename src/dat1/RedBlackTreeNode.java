@@ -0,0 +1,54 @@
+package dat1;
+
+/**
+ * Represents a node in a {@link RedBlackTree}. In addition to the lookup key
+ * and its associated value, a <tt>RedBlackTreeNode</tt> is colored either red
+ * or black.
+ * <p>
+ * Newly constructed nodes are red.
+ *
+ * @author K. Atas
+ */
+public class RedBlackTreeNode<K extends Comparable<? super K>, V>
+        extends TreeNode<K, V> {
+    private boolean red;
+
+    /**
+     * Constructs a new, red <tt>RedBlackTreeNode</tt>.
+     *
+     * @param key the key of this <tt>RedBlackTreeNode</tt>.
+     * @param value the value of this <tt>RedBlackTreeNode</tt>.
+     */
+    public RedBlackTreeNode(K key, V value) {
+        super(key, value);
+        red = true;
+    }
+
+    /**
+     * Determines whether this <tt>RedBlackTreeNode</tt> is colored red.
+     *
+     * @return <tt>true</tt> if this node is red, <tt>false</tt> if it is
+     *  black.
+     */
+    public boolean isRed() {
+        return red;
+    }
+
+    /**
+     * Colors this <tt>RedBlackTreeNode</tt> either red or black.
+     *
+     * @param red <tt>true</tt> to color this node red, <tt>false</tt> to
+     *  color it black.
+     */
+    void setRed(boolean red) {
+        this.red = red;
+    }
+
+    /**
+     * Returns a string representation of this <tt>RedBlackTreeNode</tt>.
+     */
+    public String toString() {
+        return String.format("RedBlackTreeNode[key: %s, value: %s, color: %s]",
+            getKey(), getValue(), red ? "red" : "black");
+    }
+}
@@ -0,0 +1,107 @@
+package dat1;
+
+/**
+ * A {@link ConcurrentQueue} for exactly one producer thread and one consumer
+ * thread, such as the two ends of a tunnel.
+ * <p>
+ * The items are kept in a ring buffer, between a head counter that only the
+ * consumer advances and a tail counter that only the producer advances.
+ * Since each counter has a single writer, neither <tt>offer()</tt> nor
+ * <tt>poll()</tt> needs to lock or even retry: the producer stores an item
+ * and then publishes the new tail, and the consumer reads an item and then
+ * publishes the new head. Each side also remembers the last value it saw
+ * of the opposite counter, and only reads that counter again when the
+ * queue seems full or empty, which keeps the two cache lines from bouncing
+ * between processors.
+ * <p>
+ * Calling <tt>offer()</tt>, <tt>enqueue()</tt> or <tt>put()</tt> from more
+ * than one thread at a time, or <tt>poll()</tt>, <tt>dequeue()</tt>,
+ * <tt>take()</tt> or <tt>peek()</tt> from more than one thread at a time,
+ * corrupts the queue. Use an {@link MpmcQueue} for that instead.
+ *
+ * @author K. Atas
+ */
+public class SpscQueue<E> extends ConcurrentQueue<E> {
+    private final Object[] items;
+    private final int mask;
+    private final Counter head = new Counter(); // caches the tail
+    private final Counter tail = new Counter(); // caches the head
+
+    /**
+     * Constructs a new <tt>SpscQueue</tt>.
+     *
+     * @param capacity the number of items the queue must be able to hold.
+     *  Rounded up to a power of two.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is less than one
+     *  or greater than 2<sup>30</sup>.
+     */
+    public SpscQueue(int capacity) {
+        items = new Object[powerOfTwo(capacity)];
+        mask = items.length - 1;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public int size() {
+        long head = this.head.get();
+        return (int)Math.max(0, Math.min(tail.get() - head, items.length));
+    }
+
+    /**
+     * Adds the specified item to the end of this <tt>SpscQueue</tt>, if there
+     * is room for it. May only be called by the producer.
+     */
+    public boolean offer(E item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        long tail = this.tail.get();
+        if (tail - this.tail.cache >= items.length) {
+            this.tail.cache = head.get();
+            if (tail - this.tail.cache >= items.length) {
+                return false;
+            }
+        }
+        items[(int)tail & mask] = item;
+        this.tail.lazySet(tail + 1); // publishes the item
+        return true;
+    }
+
+    /**
+     * Removes and returns the item at the head of this <tt>SpscQueue</tt>,
+     * if there is one. May only be called by the consumer.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long head = this.head.get();
+        if (head >= this.head.cache) {
+            this.head.cache = tail.get();
+            if (head >= this.head.cache) {
+                return null;
+            }
+        }
+        int index = (int)head & mask;
+        E item = (E)items[index];
+        items[index] = null; // let go of the item
+        this.head.lazySet(head + 1); // hands the slot back to the producer
+        return item;
+    }
+
+    /**
+     * Returns the item at the head of this <tt>SpscQueue</tt> without
+     * removing it. May only be called by the consumer.
+     *
+     * @return the item at the head of this <tt>SpscQueue</tt>.
+     * @throws QueueEmptyException if the <tt>SpscQueue</tt> is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        long head = this.head.get();
+        if (head >= tail.get()) {
+            throw new QueueEmptyException();
+        }
+        return (E)items[(int)head & mask];
+    }
+}
@@ -17,6 +17,7 @@ public class TreeNode<K extends Comparable<? super K>, V> {
     private TreeNode<K, V> parent;
     private TreeNode<K, V> leftChild;
     private TreeNode<K, V> rightChild;
+    private int subtreeSize;
     
     /**
      * Constructs a new <tt>TreeNode</tt>.
@@ -39,6 +40,31 @@ public class TreeNode<K extends Comparable<? super K>, V> {
         this.key = key;
         this.value = value;
         this.parent = parent;
+        this.subtreeSize = 1;
+    }
+    
+    /**
+     * Constructs a new <tt>TreeNode</tt> with the specified children. 
+     * <p>
+     * Unlike <tt>setLeftChild()</tt> and <tt>setRightChild()</tt>, this 
+     * constructor leaves the parent links of the children as they are. This
+     * allows immutable trees to share their subtrees with other trees, 
+     * which makes the parent links of such trees meaningless.
+     * 
+     * @param key the key of this <tt>TreeNode</tt>.
+     * @param value the value of this <tt>TreeNode</tt>.
+     * @param leftChild the left child of this <tt>TreeNode</tt>, or 
+     *  <tt>null</tt>.
+     * @param rightChild the right child of this <tt>TreeNode</tt>, or 
+     *  <tt>null</tt>.
+     */
+    protected TreeNode(K key, V value, TreeNode<K, V> leftChild, 
+            TreeNode<K, V> rightChild) {
+        this.key = key;
+        this.value = value;
+        this.leftChild = leftChild;
+        this.rightChild = rightChild;
+        updateSubtreeSize();
     }
     
     /**
@@ -52,6 +78,7 @@ public class TreeNode<K extends Comparable<? super K>, V> {
         TreeNode<K, V> root = new TreeNode<K, V>(key, value);
         root.setLeftChild(leftChild);
         root.setRightChild(rightChild);
+        root.subtreeSize = subtreeSize;
         return root;
     }
     
@@ -92,6 +119,39 @@ public class TreeNode<K extends Comparable<? super K>, V> {
         return parent;
     }
     
+    /**
+     * Sets the parent of this <tt>TreeNode</tt>. Used by {@link BinaryTree}
+     * to detach a node that is about to become the root node.
+     * 
+     * @param parent the new parent of this <tt>TreeNode</tt>.
+     */
+    void setParent(TreeNode<K, V> parent) {
+        this.parent = parent;
+    }
+    
+    /**
+     * Gets the number of nodes in the subtree that this <tt>TreeNode</tt> is
+     * the root of.
+     * 
+     * @return the number of descendants of this <tt>TreeNode</tt>, plus one
+     *  for the node itself.
+     */
+    public int getSubtreeSize() {
+        return subtreeSize;
+    }
+    
+    /**
+     * Recomputes the size of the subtree that this <tt>TreeNode</tt> is the 
+     * root of, from the subtree sizes of its children. Used by 
+     * {@link BinaryTree} to keep the sizes correct as the shape of the tree
+     * changes.
+     */
+    void updateSubtreeSize() {
+        subtreeSize = 1 
+            + (leftChild == null ? 0 : leftChild.subtreeSize) 
+            + (rightChild == null ? 0 : rightChild.subtreeSize);
+    }
+    
     /**
      * Counts the children of this <tt>TreeNode</tt>.
      * 
@@ -154,6 +214,52 @@ public class TreeNode<K extends Comparable<? super K>, V> {
         }
     }
 
+    /**
+     * Gets the <tt>TreeNode</tt> that comes immediately after this one in 
+     * ascending order of the keys. Follows the parent links, so that no 
+     * extra memory is needed to walk the tree in order.
+     * 
+     * @return the in-order successor of this <tt>TreeNode</tt>. <tt>null</tt>
+     *  if it has the greatest key in the tree.
+     */
+    public TreeNode<K, V> getSuccessor() {
+        TreeNode<K, V> node = rightChild;
+        if (node != null) {
+            while (node.leftChild != null) {
+                node = node.leftChild;
+            }
+            return node;
+        }
+        node = this;
+        while (node.parent != null && node == node.parent.rightChild) {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+    
+    /**
+     * Gets the <tt>TreeNode</tt> that comes immediately before this one in 
+     * ascending order of the keys. Follows the parent links, so that no 
+     * extra memory is needed to walk the tree in reverse order.
+     * 
+     * @return the in-order predecessor of this <tt>TreeNode</tt>. 
+     *  <tt>null</tt> if it has the smallest key in the tree.
+     */
+    public TreeNode<K, V> getPredecessor() {
+        TreeNode<K, V> node = leftChild;
+        if (node != null) {
+            while (node.rightChild != null) {
+                node = node.rightChild;
+            }
+            return node;
+        }
+        node = this;
+        while (node.parent != null && node == node.parent.leftChild) {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+
     /**
      * Returns a string representation of this <tt>TreeNode</tt>.
      */
@@ -0,0 +1,53 @@
+package dat1;
+
+/**
+ * Instances of <tt>TreeNodeReducer</tt> are supplied to 
+ * {@link TreeTraverser#reduce(TreeNode, TreeNodeReducer)}, to compute a 
+ * single result for a (sub)tree.
+ * <p>
+ * The result for a subtree is computed from the root node of that subtree 
+ * and the results for its left and right subtrees, by calling 
+ * <tt>reduce()</tt>. The result for a missing (<tt>null</tt>) subtree is 
+ * given by <tt>identity()</tt>. Because each result only depends on the 
+ * results below it, different subtrees can be reduced on different threads 
+ * without sharing any mutable state.
+ * <p>
+ * The following example concatenates the values in a tree in ascending order
+ * of their keys:
+ * <pre>
+ *   String values = tree.reduce(
+ *     new TreeNodeReducer&lt;String&gt;() {
+ *       public String identity() {
+ *         return "";
+ *       }
+ *       public &lt;K extends Comparable&lt;K&gt;, V&gt; String reduce(
+ *           TreeNode&lt;K, V&gt; node, String left, String right) {
+ *         return left + node.getValue() + right;
+ *       }
+ *     }
+ *   );
+ * </pre>
+ * 
+ * @see TreeTraverser
+ * @author K. Atas
+ */
+public interface TreeNodeReducer<R> {
+    /**
+     * Gets the result for an empty subtree.
+     * 
+     * @return the result for a missing (<tt>null</tt>) subtree.
+     */
+    R identity();
+    
+    /**
+     * Computes the result for the subtree rooted at the specified 
+     * {@link TreeNode}. May be called on any thread, so any state shared 
+     * between calls must be thread-safe.
+     * 
+     * @param node the root of the subtree.
+     * @param left the result for the left subtree of <tt>node</tt>.
+     * @param right the result for the right subtree of <tt>node</tt>.
+     * @return the result for the subtree rooted at <tt>node</tt>.
+     */
+    <K extends Comparable<K>, V> R reduce(TreeNode<K, V> node, R left, R right);
+}
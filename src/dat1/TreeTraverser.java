@@ -1,5 +1,15 @@
 package dat1;
 
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
 /**
  * Traverses a {@link BinaryTree} in either pre-, in- or post-order fashion.
  * <p>
@@ -18,10 +28,44 @@ package dat1;
  *     }
  *   ));
  * </pre>
+ * Traversals do not recurse, so that even degenerate trees that are many 
+ * thousands of levels deep can be traversed without overflowing the stack. 
+ * Instead, each next node is found by following the child and parent links 
+ * of the current one, which takes constant extra space.
+ * <p>
+ * The same traversals are also available as an {@link Iterator} or a 
+ * {@link Spliterator} over the nodes, through <tt>preOrderIterator()</tt>, 
+ * <tt>inOrderIterator()</tt> and <tt>postOrderIterator()</tt> and their 
+ * spliterator counterparts. These let the caller pull nodes at its own pace,
+ * and stop whenever it has seen enough:
+ * <pre>
+ *   Iterator&lt;TreeNode&lt;String, String&gt;&gt; nodes = 
+ *       TreeTraverser.inOrderIterator(root);
+ *   while (nodes.hasNext()) {
+ *     TreeNode&lt;String, String&gt; node = nodes.next();
+ *     if (node.getValue() == null) {
+ *       break; // early exit.
+ *     }
+ *   }
+ * </pre>
+ * Trees whose nodes need a lot of work each can be traversed by multiple 
+ * threads at once, with a traverser returned by <tt>parallel()</tt>. To 
+ * compute a single result for a tree without sharing mutable state between 
+ * those threads, use <tt>reduce()</tt> instead.
  * 
  * @author K. Atas
  */
 public abstract class TreeTraverser {
+    /**
+     * Subtrees of at most this many nodes are not split up any further 
+     * between threads.
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
+    
+    private static final int PRE_ORDER = 0;
+    private static final int IN_ORDER = 1;
+    private static final int POST_ORDER = 2;
+    
     private final TreeNodeVisitor visitor;
    
     /**
@@ -77,12 +121,9 @@ public abstract class TreeTraverser {
     public static TreeTraverser preOrder(TreeNodeVisitor visitor) {
         return new TreeTraverser(visitor) {
             protected <K extends Comparable<K>, V> void traversing(TreeNode<K, V> node) {
-                visiting(node);
-                if (node.getLeftChild() != null) {
-                    traversing(node.getLeftChild());
-                }
-                if (node.getRightChild() != null) {
-                    traversing(node.getRightChild());
+                Iterator<TreeNode<K, V>> nodes = preOrderIterator(node);
+                while (nodes.hasNext()) {
+                    visiting(nodes.next());
                 }
             }
         };
@@ -102,17 +143,14 @@ public abstract class TreeTraverser {
     public static TreeTraverser inOrder(TreeNodeVisitor visitor) {
         return new TreeTraverser(visitor) {
             protected <K extends Comparable<K>, V> void traversing(TreeNode<K, V> node) {
-                if (node.getLeftChild() != null) {
-                    traversing(node.getLeftChild());
-                }
-                visiting(node);
-                if (node.getRightChild() != null) {
-                    traversing(node.getRightChild());
+                Iterator<TreeNode<K, V>> nodes = inOrderIterator(node);
+                while (nodes.hasNext()) {
+                    visiting(nodes.next());
                 }
             }
         };
     }
-        
+    
     /**
      * Returns a <tt>TreeTraverser</tt> that performs a post-order traversal 
      * of a {@link BinaryTree}.
@@ -127,14 +165,661 @@ public abstract class TreeTraverser {
     public static TreeTraverser postOrder(TreeNodeVisitor visitor) {
         return new TreeTraverser(visitor) {
             protected <K extends Comparable<K>, V> void traversing(TreeNode<K, V> node) {
+                Iterator<TreeNode<K, V>> nodes = postOrderIterator(node);
+                while (nodes.hasNext()) {
+                    visiting(nodes.next());
+                }
+            }
+        };
+    }
+    
+    /**
+     * Returns a <tt>TreeTraverser</tt> that visits the nodes of a 
+     * {@link BinaryTree} on multiple threads at once, using the common 
+     * {@link ForkJoinPool}.
+     * <p>
+     * The tree is split into subtrees wherever both children of a node have
+     * large subtrees of their own, and these are visited in parallel. The 
+     * nodes are therefore visited in no particular order, and 
+     * <tt>visitor</tt> must be thread-safe. The traversal returns once all 
+     * nodes have been visited. 
+     * <p>
+     * The split relies on the subtree sizes that a <tt>BinaryTree</tt> 
+     * maintains, and only happens at a node where both children have more
+     * than 1024 nodes below them. Anything else is visited on a single 
+     * thread, without notice. This includes a degenerate tree, a tree whose
+     * large subtrees all hang to one side, and a tree of <tt>TreeNode</tt>s 
+     * that were linked by hand, whose subtree sizes were never updated.
+     * 
+     * @param visitor called upon to visit each <tt>TreeNode</tt> during the 
+     *  traversal, possibly from several threads at the same time.
+     * @return a <tt>TreeTraverser</tt> object.
+     */
+    public static TreeTraverser parallel(final TreeNodeVisitor visitor) {
+        return new TreeTraverser(visitor) {
+            protected <K extends Comparable<K>, V> void traversing(TreeNode<K, V> node) {
+                ForkJoinPool.commonPool().invoke(
+                    new VisitTask<K, V>(node, visitor));
+            }
+        };
+    }
+    
+    /**
+     * Computes a single result for the subtree rooted at <tt>root</tt>, on 
+     * multiple threads at once, using the common {@link ForkJoinPool}.
+     * <p>
+     * The result for each subtree is computed by the specified 
+     * {@link TreeNodeReducer}, from the root node of the subtree and the 
+     * results for its left and right subtrees. Subtrees are split between 
+     * threads in the same way as by {@link #parallel(TreeNodeVisitor)}, but
+     * the results are combined in the shape of the tree, so the outcome is 
+     * the same as that of a single-threaded reduction. Like the traversal, 
+     * the reduction quietly runs on a single thread if the subtree sizes 
+     * offer no node where both children have more than 1024 nodes.
+     * 
+     * @param root the root of the subtree to reduce, or <tt>null</tt>.
+     * @param reducer computes the result for each subtree.
+     * @return the result for the subtree rooted at <tt>root</tt>, or 
+     *  <tt>reducer.identity()</tt> if it is empty.
+     */
+    public static <K extends Comparable<K>, V, R> R reduce(TreeNode<K, V> root,
+            TreeNodeReducer<R> reducer) {
+        if (root == null) {
+            return reducer.identity();
+        }
+        return ForkJoinPool.commonPool().invoke(
+            new ReduceTask<K, V, R>(root, reducer));
+    }
+    
+    /**
+     * Returns an {@link Iterator} over the nodes in the subtree rooted at 
+     * <tt>root</tt>, in pre-order: the root node first, then the left 
+     * subtree, then the right subtree.
+     * <p>
+     * The iterator follows the child and parent links of the nodes, and so 
+     * takes constant extra space regardless of the height of the subtree. 
+     * The subtree must not be changed during iteration.
+     * 
+     * @param root the root of the subtree to iterate over, or <tt>null</tt>.
+     * @return an {@link Iterator} over the nodes of the subtree.
+     */
+    public static <K extends Comparable<K>, V> Iterator<TreeNode<K, V>> 
+            preOrderIterator(TreeNode<K, V> root) {
+        return new NodeIterator<K, V>(root, root) {
+            protected TreeNode<K, V> advance(TreeNode<K, V> node) {
                 if (node.getLeftChild() != null) {
-                    traversing(node.getLeftChild());
+                    return node.getLeftChild();
                 }
                 if (node.getRightChild() != null) {
-                    traversing(node.getRightChild());
+                    return node.getRightChild();
+                }
+                while (node != root) {
+                    TreeNode<K, V> parent = node.getParent();
+                    if (node == parent.getLeftChild() 
+                            && parent.getRightChild() != null) {
+                        return parent.getRightChild();
+                    }
+                    node = parent;
+                }
+                return null;
+            }
+        };
+    }
+    
+    /**
+     * Returns an {@link Iterator} over the nodes in the subtree rooted at 
+     * <tt>root</tt>, in in-order: the left subtree first, then the root node,
+     * then the right subtree. This is ascending order of the keys.
+     * <p>
+     * The iterator follows the child and parent links of the nodes, and so 
+     * takes constant extra space regardless of the height of the subtree. 
+     * The subtree must not be changed during iteration.
+     * 
+     * @param root the root of the subtree to iterate over, or <tt>null</tt>.
+     * @return an {@link Iterator} over the nodes of the subtree.
+     */
+    public static <K extends Comparable<K>, V> Iterator<TreeNode<K, V>> 
+            inOrderIterator(TreeNode<K, V> root) {
+        return new NodeIterator<K, V>(root, leftmost(root)) {
+            protected TreeNode<K, V> advance(TreeNode<K, V> node) {
+                if (node.getRightChild() != null) {
+                    return leftmost(node.getRightChild());
+                }
+                while (node != root) {
+                    TreeNode<K, V> parent = node.getParent();
+                    if (node == parent.getLeftChild()) {
+                        return parent;
+                    }
+                    node = parent;
+                }
+                return null;
+            }
+        };
+    }
+    
+    /**
+     * Returns an {@link Iterator} over the nodes in the subtree rooted at 
+     * <tt>root</tt>, in post-order: the left subtree first, then the right 
+     * subtree, then the root node.
+     * <p>
+     * The iterator follows the child and parent links of the nodes, and so 
+     * takes constant extra space regardless of the height of the subtree. 
+     * The subtree must not be changed during iteration.
+     * 
+     * @param root the root of the subtree to iterate over, or <tt>null</tt>.
+     * @return an {@link Iterator} over the nodes of the subtree.
+     */
+    public static <K extends Comparable<K>, V> Iterator<TreeNode<K, V>> 
+            postOrderIterator(TreeNode<K, V> root) {
+        return new NodeIterator<K, V>(root, firstInPostOrder(root)) {
+            protected TreeNode<K, V> advance(TreeNode<K, V> node) {
+                if (node == root) {
+                    return null;
+                }
+                TreeNode<K, V> parent = node.getParent();
+                if (node == parent.getLeftChild() 
+                        && parent.getRightChild() != null) {
+                    return firstInPostOrder(parent.getRightChild());
                 }
-                visiting(node);
+                return parent;
             }
         };
     }
+    
+    /**
+     * Returns a {@link Spliterator} over the nodes in the subtree rooted at 
+     * <tt>root</tt>, in pre-order. 
+     * 
+     * @param root the root of the subtree to iterate over, or <tt>null</tt>.
+     * @return a {@link Spliterator} over the nodes of the subtree.
+     * @see #preOrderIterator(TreeNode)
+     */
+    public static <K extends Comparable<K>, V> Spliterator<TreeNode<K, V>> 
+            preOrderSpliterator(TreeNode<K, V> root) {
+        return new NodeSpliterator<K, V>(PRE_ORDER, root);
+    }
+    
+    /**
+     * Returns a {@link Spliterator} over the nodes in the subtree rooted at 
+     * <tt>root</tt>, in in-order. 
+     * 
+     * @param root the root of the subtree to iterate over, or <tt>null</tt>.
+     * @return a {@link Spliterator} over the nodes of the subtree.
+     * @see #inOrderIterator(TreeNode)
+     */
+    public static <K extends Comparable<K>, V> Spliterator<TreeNode<K, V>> 
+            inOrderSpliterator(TreeNode<K, V> root) {
+        return new NodeSpliterator<K, V>(IN_ORDER, root);
+    }
+    
+    /**
+     * Returns a {@link Spliterator} over the nodes in the subtree rooted at 
+     * <tt>root</tt>, in post-order. 
+     * 
+     * @param root the root of the subtree to iterate over, or <tt>null</tt>.
+     * @return a {@link Spliterator} over the nodes of the subtree.
+     * @see #postOrderIterator(TreeNode)
+     */
+    public static <K extends Comparable<K>, V> Spliterator<TreeNode<K, V>> 
+            postOrderSpliterator(TreeNode<K, V> root) {
+        return new NodeSpliterator<K, V>(POST_ORDER, root);
+    }
+    
+    /**
+     * Finds the leftmost node in the subtree rooted at <tt>node</tt>, which 
+     * comes first in in-order.
+     * 
+     * @param node the root of the subtree, or <tt>null</tt>.
+     * @return the leftmost node, or <tt>null</tt> if the subtree is empty.
+     */
+    private static <K extends Comparable<K>, V> TreeNode<K, V> leftmost(
+            TreeNode<K, V> node) {
+        if (node != null) {
+            while (node.getLeftChild() != null) {
+                node = node.getLeftChild();
+            }
+        }
+        return node;
+    }
+    
+    /**
+     * Finds the node that comes first in post-order in the subtree rooted at
+     * <tt>node</tt>. This is the leaf that is reached by descending to the 
+     * left child wherever there is one, and to the right child otherwise.
+     * 
+     * @param node the root of the subtree, or <tt>null</tt>.
+     * @return the first node in post-order, or <tt>null</tt> if the subtree 
+     *  is empty.
+     */
+    private static <K extends Comparable<K>, V> TreeNode<K, V> firstInPostOrder(
+            TreeNode<K, V> node) {
+        if (node != null) {
+            while (node.countChildren() > 0) {
+                node = node.getLeftChild() != null 
+                    ? node.getLeftChild() : node.getRightChild();
+            }
+        }
+        return node;
+    }
+    
+    /**
+     * Reduces the subtree rooted at <tt>root</tt> on the current thread. 
+     * Walks the subtree in post-order, keeping the results for the subtrees
+     * that still await their parent node on a {@link Stack}, so that it does
+     * not recurse.
+     * 
+     * @param root the root of the subtree, or <tt>null</tt>.
+     * @param reducer computes the result for each subtree.
+     * @return the result for the subtree.
+     */
+    private static <K extends Comparable<K>, V, R> R reduceSequentially(
+            TreeNode<K, V> root, TreeNodeReducer<R> reducer) {
+        if (root == null) {
+            return reducer.identity();
+        }
+        Stack<R> results = new Stack<R>();
+        Iterator<TreeNode<K, V>> nodes = postOrderIterator(root);
+        while (nodes.hasNext()) {
+            TreeNode<K, V> node = nodes.next();
+            R right = node.getRightChild() != null 
+                ? results.pop() : reducer.identity();
+            R left = node.getLeftChild() != null 
+                ? results.pop() : reducer.identity();
+            results.push(reducer.reduce(node, left, right));
+        }
+        return results.pop();
+    }
+    
+    /**
+     * Gets the size of the subtree rooted at the specified node.
+     * 
+     * @param node a {@link TreeNode} or <tt>null</tt>.
+     * @return the subtree size of <tt>node</tt>, or zero if it is 
+     *  <tt>null</tt>.
+     */
+    private static int subtreeSize(TreeNode<?, ?> node) {
+        return node == null ? 0 : node.getSubtreeSize();
+    }
+    
+    /**
+     * Visits the nodes of a subtree, splitting it between threads where 
+     * both children of a node have more than <tt>PARALLEL_THRESHOLD</tt> 
+     * nodes below them.
+     * <p>
+     * Where only one child has a large subtree, the node and its small 
+     * subtree are visited on the current thread, which then moves on to the
+     * large subtree. This keeps the number of nested tasks down to the 
+     * number of actual splits, however deep the tree.
+     */
+    @SuppressWarnings("serial")
+    private static class VisitTask<K extends Comparable<K>, V> 
+            extends RecursiveAction {
+        private final TreeNode<K, V> root;
+        private final TreeNodeVisitor visitor;
+        
+        /**
+         * Constructs a new <tt>VisitTask</tt>.
+         * 
+         * @param root the root of the subtree to visit.
+         * @param visitor called upon to visit each node.
+         */
+        VisitTask(TreeNode<K, V> root, TreeNodeVisitor visitor) {
+            this.root = root;
+            this.visitor = visitor;
+        }
+        
+        protected void compute() {
+            TreeNode<K, V> node = root;
+            while (subtreeSize(node) > PARALLEL_THRESHOLD) {
+                TreeNode<K, V> left = node.getLeftChild();
+                TreeNode<K, V> right = node.getRightChild();
+                visitor.visit(node);
+                if (subtreeSize(left) > PARALLEL_THRESHOLD 
+                        && subtreeSize(right) > PARALLEL_THRESHOLD) {
+                    ForkJoinTask.invokeAll(new VisitTask<K, V>(left, visitor), 
+                        new VisitTask<K, V>(right, visitor));
+                    return;
+                }
+                TreeNode<K, V> small = subtreeSize(left) > PARALLEL_THRESHOLD 
+                    ? right : left;
+                visitSequentially(small);
+                node = small == left ? right : left;
+            }
+            visitSequentially(node);
+        }
+        
+        /**
+         * Visits the nodes of a subtree on the current thread.
+         * 
+         * @param node the root of the subtree, or <tt>null</tt>.
+         */
+        private void visitSequentially(TreeNode<K, V> node) {
+            Iterator<TreeNode<K, V>> nodes = preOrderIterator(node);
+            while (nodes.hasNext()) {
+                visitor.visit(nodes.next());
+            }
+        }
+    }
+    
+    /**
+     * Reduces a subtree, splitting it between threads in the same way as a 
+     * <tt>VisitTask</tt>. The nodes that are passed on the way down to a 
+     * split, and the results for their small subtrees, are kept on 
+     * {@link Stack}s. Once the result for the split is known, it is combined 
+     * with those on the way back up.
+     */
+    @SuppressWarnings("serial")
+    private static class ReduceTask<K extends Comparable<K>, V, R> 
+            extends RecursiveTask<R> {
+        private final TreeNode<K, V> root;
+        private final TreeNodeReducer<R> reducer;
+        
+        /**
+         * Constructs a new <tt>ReduceTask</tt>.
+         * 
+         * @param root the root of the subtree to reduce.
+         * @param reducer computes the result for each subtree.
+         */
+        ReduceTask(TreeNode<K, V> root, TreeNodeReducer<R> reducer) {
+            this.root = root;
+            this.reducer = reducer;
+        }
+        
+        protected R compute() {
+            Stack<TreeNode<K, V>> path = new Stack<TreeNode<K, V>>();
+            Stack<R> smallResults = new Stack<R>();
+            TreeNode<K, V> node = root;
+            R result = null;
+            while (true) {
+                if (subtreeSize(node) <= PARALLEL_THRESHOLD) {
+                    result = reduceSequentially(node, reducer);
+                    break;
+                }
+                TreeNode<K, V> left = node.getLeftChild();
+                TreeNode<K, V> right = node.getRightChild();
+                if (subtreeSize(left) > PARALLEL_THRESHOLD 
+                        && subtreeSize(right) > PARALLEL_THRESHOLD) {
+                    ReduceTask<K, V, R> leftTask = 
+                        new ReduceTask<K, V, R>(left, reducer);
+                    leftTask.fork();
+                    R rightResult = new ReduceTask<K, V, R>(right, reducer).compute();
+                    result = reducer.reduce(node, leftTask.join(), rightResult);
+                    break;
+                }
+                TreeNode<K, V> small = subtreeSize(left) > PARALLEL_THRESHOLD 
+                    ? right : left;
+                path.push(node);
+                smallResults.push(reduceSequentially(small, reducer));
+                node = small == left ? right : left;
+            }
+            while (!path.isEmpty()) {
+                TreeNode<K, V> parent = path.pop();
+                R small = smallResults.pop();
+                if (parent.getRightChild() == node) {
+                    result = reducer.reduce(parent, small, result);
+                } else {
+                    result = reducer.reduce(parent, result, small);
+                }
+                node = parent;
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * A {@link Spliterator} over the nodes in a subtree, which splits at the 
+     * children of the nodes. 
+     * <p>
+     * The nodes that remain are described by a list of pieces in traversal 
+     * order, each of which is either a single node or a whole subtree. A 
+     * split hands a prefix of the pieces to a new <tt>NodeSpliterator</tt>,
+     * after breaking up whole subtrees into their root node and the 
+     * subtrees of its children, until there are two whole subtrees to 
+     * divide. A tree that has degenerated into a chain has no such pair, 
+     * so it is split off a few nodes at a time. A whole subtree is walked 
+     * by one of the node iterators.
+     * <p>
+     * The subtree sizes are only used to estimate the number of nodes, 
+     * since only a {@link BinaryTree} keeps them up to date. The 
+     * <tt>NodeSpliterator</tt> is therefore not <tt>SIZED</tt>.
+     */
+    private static class NodeSpliterator<K extends Comparable<K>, V> 
+            implements Spliterator<TreeNode<K, V>> {
+        private final int order;
+        private final LinkedList<Piece<K, V>> pieces;
+        private Iterator<TreeNode<K, V>> current;
+        private long estimate;
+        
+        /**
+         * Constructs a new <tt>NodeSpliterator</tt>.
+         * 
+         * @param order <tt>PRE_ORDER</tt>, <tt>IN_ORDER</tt> or 
+         *  <tt>POST_ORDER</tt>.
+         * @param root the root of the subtree to iterate over, or 
+         *  <tt>null</tt>.
+         */
+        NodeSpliterator(int order, TreeNode<K, V> root) {
+            this.order = order;
+            pieces = new LinkedList<Piece<K, V>>();
+            if (root != null) {
+                pieces.addLast(new Piece<K, V>(root, true));
+                estimate = root.getSubtreeSize();
+            }
+        }
+        
+        public boolean tryAdvance(Consumer<? super TreeNode<K, V>> action) {
+            while (current == null || !current.hasNext()) {
+                current = null;
+                Piece<K, V> piece = pieces.removeFirst();
+                if (piece == null) {
+                    return false;
+                }
+                if (!piece.whole) {
+                    action.accept(piece.node);
+                    return true;
+                }
+                current = iterator(piece.node);
+            }
+            action.accept(current.next());
+            return true;
+        }
+        
+        public Spliterator<TreeNode<K, V>> trySplit() {
+            int wholes = countWholes();
+            while (wholes < 2 && pieces.size() < 4 && expandLastWhole()) {
+                wholes = countWholes();
+            }
+            int split; // the number of pieces to hand out
+            if (wholes >= 2) {
+                // up to and including the middle whole subtree, counting the
+                // current one as a whole subtree too.
+                int target = (wholes + (current != null ? 1 : 0)) / 2;
+                if (current != null) {
+                    target--;
+                }
+                split = 0;
+                for (int seen = 0; seen < target; split++) {
+                    if (pieces.get(split).whole) {
+                        seen++;
+                    }
+                }
+            } else {
+                split = pieces.size() / 2;
+                if (split == 0 && current == null) {
+                    split = 1;
+                }
+            }
+            if (split >= pieces.size()) {
+                return null;
+            }
+            LinkedList<Piece<K, V>> suffix = pieces.splitAt(split);
+            NodeSpliterator<K, V> prefix = new NodeSpliterator<K, V>(order, null);
+            prefix.pieces.appendAll(pieces);
+            prefix.current = current;
+            current = null;
+            pieces.appendAll(suffix);
+            long size = sizeOf(pieces);
+            prefix.estimate = Math.max(estimate - size, sizeOf(prefix.pieces));
+            estimate = size;
+            return prefix;
+        }
+        
+        public long estimateSize() {
+            return estimate;
+        }
+        
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL;
+        }
+        
+        /**
+         * Counts the pieces that are whole subtrees.
+         * 
+         * @return the number of whole subtrees.
+         */
+        private int countWholes() {
+            int count = 0;
+            for (Piece<K, V> piece : pieces) {
+                if (piece.whole) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        /**
+         * Replaces the last whole subtree by its root node and the subtrees 
+         * of its children, in traversal order.
+         * 
+         * @return <tt>false</tt> if there is no whole subtree.
+         */
+        private boolean expandLastWhole() {
+            ListIterator<Piece<K, V>> it = pieces.listIterator(pieces.size());
+            while (it.hasPrevious()) {
+                Piece<K, V> piece = it.previous();
+                if (piece.whole) {
+                    it.remove();
+                    TreeNode<K, V> node = piece.node;
+                    if (order == PRE_ORDER) {
+                        it.add(new Piece<K, V>(node, false));
+                    }
+                    if (node.getLeftChild() != null) {
+                        it.add(new Piece<K, V>(node.getLeftChild(), true));
+                    }
+                    if (order == IN_ORDER) {
+                        it.add(new Piece<K, V>(node, false));
+                    }
+                    if (node.getRightChild() != null) {
+                        it.add(new Piece<K, V>(node.getRightChild(), true));
+                    }
+                    if (order == POST_ORDER) {
+                        it.add(new Piece<K, V>(node, false));
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Returns an iterator over a whole subtree, in the order of this 
+         * <tt>NodeSpliterator</tt>.
+         * 
+         * @param root the root of the subtree.
+         * @return an {@link Iterator} over the nodes of the subtree.
+         */
+        private Iterator<TreeNode<K, V>> iterator(TreeNode<K, V> root) {
+            switch (order) {
+                case PRE_ORDER:
+                    return preOrderIterator(root);
+                case IN_ORDER:
+                    return inOrderIterator(root);
+                default:
+                    return postOrderIterator(root);
+            }
+        }
+        
+        /**
+         * Estimates the number of nodes in a list of pieces.
+         * 
+         * @param pieces the pieces.
+         * @return the estimated number of nodes.
+         */
+        private static long sizeOf(LinkedList<? extends Piece<?, ?>> pieces) {
+            long size = 0;
+            for (Piece<?, ?> piece : pieces) {
+                size += piece.whole ? piece.node.getSubtreeSize() : 1;
+            }
+            return size;
+        }
+    }
+    
+    /**
+     * A part of the nodes that a {@link NodeSpliterator} has yet to return:
+     * either a single node, or the whole subtree rooted at a node.
+     */
+    private static class Piece<K extends Comparable<K>, V> {
+        final TreeNode<K, V> node;
+        final boolean whole;
+        
+        /**
+         * Constructs a new <tt>Piece</tt>.
+         * 
+         * @param node a node.
+         * @param whole whether the piece consists of the whole subtree 
+         *  rooted at <tt>node</tt>, or just the node itself.
+         */
+        Piece(TreeNode<K, V> node, boolean whole) {
+            this.node = node;
+            this.whole = whole;
+        }
+    }
+    
+    /**
+     * Iterates over the nodes in a subtree by repeatedly asking for the node 
+     * that comes after the current one.
+     */
+    private static abstract class NodeIterator<K extends Comparable<K>, V> 
+            implements Iterator<TreeNode<K, V>> {
+        protected final TreeNode<K, V> root;
+        private TreeNode<K, V> next;
+        
+        /**
+         * Constructs a new <tt>NodeIterator</tt>.
+         * 
+         * @param root the root of the subtree to iterate over.
+         * @param first the first node to return, or <tt>null</tt> if the 
+         *  subtree is empty.
+         */
+        NodeIterator(TreeNode<K, V> root, TreeNode<K, V> first) {
+            this.root = root;
+            next = first;
+        }
+        
+        /**
+         * Finds the node that comes after the specified one.
+         * 
+         * @param node the current node.
+         * @return the next node, or <tt>null</tt> if <tt>node</tt> is the 
+         *  last one in the subtree.
+         */
+        protected abstract TreeNode<K, V> advance(TreeNode<K, V> node);
+        
+        public boolean hasNext() {
+            return next != null;
+        }
+        
+        public TreeNode<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            TreeNode<K, V> node = next;
+            next = advance(node);
+            return node;
+        }
+        
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
\ No newline at end of file
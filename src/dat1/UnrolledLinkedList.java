@@ -0,0 +1,520 @@
+package dat1;
+
+import java.util.Arrays;
+
+/**
+ * A variant of {@link LinkedList} that stores several items per node. An
+ * <tt>UnrolledLinkedList</tt> consists of a doubly-linked sequence of blocks,
+ * each of which holds up to a fixed number of items in a small array.
+ * <p>
+ * A {@link ListNode} costs an object header and three references for every
+ * single item. A block spreads the cost of its header, links and array
+ * header over all of its items, so that a list of full blocks needs a few
+ * bytes per item on top of the item references themselves. Scanning the
+ * list walks through consecutive array elements instead of chasing a link
+ * for every item, and finding the item at a given offset skips whole blocks
+ * at a time.
+ * <p>
+ * Inserting into a full block splits it into two half-full blocks. A
+ * removal that leaves a block less than half full either merges it with a
+ * neighbouring block, if their items fit in one block, or moves items over
+ * from the neighbour until both are at least half full. Every block but the
+ * first and the last is therefore at least half full.
+ *
+ * @author K. Atas
+ */
+public class UnrolledLinkedList<E> {
+    private static final int DEFAULT_BLOCK_SIZE = 32;
+
+    private final int blockSize;
+    private Block first;
+    private Block last;
+    private int size;
+
+    /**
+     * The offset within its block of the item that was last located by
+     * <tt>findBlock()</tt>.
+     */
+    private int offset;
+
+    /**
+     * Constructs a new, empty <tt>UnrolledLinkedList</tt>.
+     */
+    public UnrolledLinkedList() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs a new, empty <tt>UnrolledLinkedList</tt> with blocks of the
+     * specified size.
+     *
+     * @param blockSize the maximum number of items per block.
+     * @throws IllegalArgumentException if <tt>blockSize &lt; 2</tt>.
+     */
+    public UnrolledLinkedList(int blockSize) {
+        if (blockSize < 2) {
+            throw new IllegalArgumentException(String.valueOf(blockSize));
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Constructs a new <tt>UnrolledLinkedList</tt> initialized with the items
+     * contained in the specified array.
+     *
+     * @param items an array whose items are to be added to this
+     *  <tt>UnrolledLinkedList</tt>.
+     */
+    public UnrolledLinkedList(E[] items) {
+        this();
+        for (E item : items) {
+            addLast(item);
+        }
+    }
+
+    /**
+     * Gets the size of this <tt>UnrolledLinkedList</tt>.
+     *
+     * @return the number of items in this <tt>UnrolledLinkedList</tt>.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of blocks in this <tt>UnrolledLinkedList</tt>. Since
+     * every block but the first and the last is at least half full, this is
+     * at most <tt>2 + size() / (blockSize / 2)</tt>.
+     *
+     * @return the number of blocks.
+     */
+    public int blockCount() {
+        int count = 0;
+        for (Block block = first; block != null; block = block.next) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Adds a new item to the beginning (or head) of this
+     * <tt>UnrolledLinkedList</tt>.
+     *
+     * @param item the item to add to this <tt>UnrolledLinkedList</tt>.
+     */
+    public void addFirst(E item) {
+        if (first == null || first.count == blockSize) {
+            insertBlockAfter(null);
+        }
+        first.insert(0, item);
+        size++;
+    }
+
+    /**
+     * Adds a new item to the end of this <tt>UnrolledLinkedList</tt>.
+     *
+     * @param item the item to add to this <tt>UnrolledLinkedList</tt>.
+     */
+    public void addLast(E item) {
+        if (last == null || last.count == blockSize) {
+            insertBlockAfter(last);
+        }
+        last.items[last.count++] = item;
+        size++;
+    }
+
+    /**
+     * Adds a new item to this <tt>UnrolledLinkedList</tt> at the specified
+     * position.
+     *
+     * @param index the offset at which to add the item.
+     * @param item the item to add to this <tt>UnrolledLinkedList</tt>.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index > size()</tt>.
+     */
+    public void add(int index, E item) {
+        if (index == 0) {
+            addFirst(item);
+        } else if (index == size) {
+            addLast(item);
+        } else {
+            Block block = findBlock(index);
+            int offset = this.offset;
+            if (block.count == blockSize) {
+                Block next = split(block);
+                if (offset > block.count) {
+                    offset -= block.count;
+                    block = next;
+                }
+            }
+            block.insert(offset, item);
+            size++;
+        }
+    }
+
+    /**
+     * Gets the item at the beginning of this <tt>UnrolledLinkedList</tt>.
+     *
+     * @return the first item in this <tt>UnrolledLinkedList</tt> or
+     *  <tt>null</tt>, if there are no items.
+     */
+    @SuppressWarnings("unchecked")
+    public E getFirst() {
+        if (first != null) {
+            return (E)first.items[0];
+        }
+        return null;
+    }
+
+    /**
+     * Gets the item at the end of this <tt>UnrolledLinkedList</tt>.
+     *
+     * @return the last item in this <tt>UnrolledLinkedList</tt> or
+     *  <tt>null</tt>, if there are no items.
+     */
+    @SuppressWarnings("unchecked")
+    public E getLast() {
+        if (last != null) {
+            return (E)last.items[last.count - 1];
+        }
+        return null;
+    }
+
+    /**
+     * Gets the item at the specified position in this
+     * <tt>UnrolledLinkedList</tt>.
+     *
+     * @param index the offset at which to retrieve the item.
+     * @return the item at specified offset.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index >= size()</tt>.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Block block = findBlock(index);
+        return (E)block.items[offset];
+    }
+
+    /**
+     * Replaces the item at the specified position in this
+     * <tt>UnrolledLinkedList</tt> with another one.
+     *
+     * @param index offset at which to replace the item.
+     * @param item the item to replace with.
+     * @return the item that was previously at that position.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index >= size()</tt>.
+     */
+    @SuppressWarnings("unchecked")
+    public E set(int index, E item) {
+        Block block = findBlock(index);
+        E oldItem = (E)block.items[offset];
+        block.items[offset] = item;
+        return oldItem;
+    }
+
+    /**
+     * Removes and returns the item at the beginning of this
+     * <tt>UnrolledLinkedList</tt>.
+     *
+     * @return the removed item or <tt>null</tt>, if the list is empty.
+     */
+    public E removeFirst() {
+        if (first == null) {
+            return null;
+        }
+        return removeFrom(first, 0);
+    }
+
+    /**
+     * Removes and returns the item at the end of this
+     * <tt>UnrolledLinkedList</tt>.
+     *
+     * @return the removed item or <tt>null</tt>, if the list is empty.
+     */
+    public E removeLast() {
+        if (last == null) {
+            return null;
+        }
+        return removeFrom(last, last.count - 1);
+    }
+
+    /**
+     * Removes and returns the item at the specified position in this
+     * <tt>UnrolledLinkedList</tt>.
+     *
+     * @param index the offset at which to remove the item.
+     * @return the removed item.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index >= size()</tt>.
+     */
+    public E remove(int index) {
+        Block block = findBlock(index);
+        return removeFrom(block, offset);
+    }
+
+    /**
+     * Returns the offset in this <tt>UnrolledLinkedList</tt> of the first
+     * occurrence of the specified item.
+     *
+     * @param item the item to find the offset in this
+     *  <tt>UnrolledLinkedList</tt> of.
+     * @return the offset in this <tt>UnrolledLinkedList</tt> of the first
+     *  occurrence of the specified item. -1 if this
+     *  <tt>UnrolledLinkedList</tt> does not contain the item.
+     */
+    public int indexOf(E item) {
+        int start = 0;
+        for (Block block = first; block != null; block = block.next) {
+            for (int i = 0; i < block.count; i++) {
+                if (item == null ? block.items[i] == null // handle null values
+                        : item.equals(block.items[i])) {
+                    return start + i;
+                }
+            }
+            start += block.count;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset in this <tt>UnrolledLinkedList</tt> of the last
+     * occurrence of the specified item.
+     *
+     * @param item the item to find the offset in this
+     *  <tt>UnrolledLinkedList</tt> of.
+     * @return the offset in this <tt>UnrolledLinkedList</tt> of the last
+     *  occurrence of the specified item. -1 if this
+     *  <tt>UnrolledLinkedList</tt> does not contain the item.
+     */
+    public int lastIndexOf(E item) {
+        int end = size;
+        for (Block block = last; block != null; block = block.prev) {
+            end -= block.count;
+            for (int i = block.count - 1; i >= 0; i--) {
+                if (item == null ? block.items[i] == null // handle null values
+                        : item.equals(block.items[i])) {
+                    return end + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a string representation of this <tt>UnrolledLinkedList</tt>.
+     */
+    public String toString() {
+        StringBuffer str = new StringBuffer();
+        for (Block block = first; block != null; block = block.next) {
+            for (int i = 0; i < block.count; i++) {
+                if (str.length() != 0) {
+                    str.append(", ");
+                }
+                str.append(block.items[i]);
+            }
+        }
+        return String.format("[%s]", str);
+    }
+
+    /**
+     * Finds the block that holds the item at the specified offset, by
+     * skipping whole blocks from whichever end of the list is closest. Sets
+     * <tt>offset</tt> to the offset of the item within the block.
+     *
+     * @param index the offset of the item.
+     * @return the block that holds the item.
+     * @throws IndexOutOfBoundsException if <tt>index < 0</tt> or
+     *  <tt>index >= size()</tt>.
+     */
+    private Block findBlock(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        Block block;
+        if (index < size / 2) {
+            block = first;
+            while (index >= block.count) {
+                index -= block.count;
+                block = block.next;
+            }
+        } else {
+            index = size - 1 - index; // offset from the end
+            block = last;
+            while (index >= block.count) {
+                index -= block.count;
+                block = block.prev;
+            }
+            index = block.count - 1 - index;
+        }
+        offset = index;
+        return block;
+    }
+
+    /**
+     * Removes the item at the specified offset within a block. Unlinks the
+     * block if it becomes empty, or refills it if it drops below half full.
+     *
+     * @param block the block that holds the item.
+     * @param offset the offset of the item within the block.
+     * @return the removed item.
+     */
+    @SuppressWarnings("unchecked")
+    private E removeFrom(Block block, int offset) {
+        E item = (E)block.items[offset];
+        block.count--;
+        System.arraycopy(block.items, offset + 1, block.items, offset,
+            block.count - offset);
+        block.items[block.count] = null; // let go of the item
+        size--;
+        if (block.count == 0) {
+            unlink(block);
+        } else if (block.count < blockSize / 2) {
+            refill(block);
+        }
+        return item;
+    }
+
+    /**
+     * Brings a block that has dropped below half full back up, with the help
+     * of its successor, or of its predecessor if it is the last block. If
+     * the items of both blocks fit in one, they are merged. Otherwise, items
+     * are moved over from the neighbour until both blocks hold about the
+     * same number, which is at least half a block each.
+     *
+     * @param block a block that is less than half full.
+     */
+    private void refill(Block block) {
+        Block next = block.next;
+        if (next != null) {
+            if (block.count + next.count <= blockSize) {
+                System.arraycopy(next.items, 0, block.items, block.count,
+                    next.count);
+                block.count += next.count;
+                unlink(next);
+            } else {
+                int count = (next.count - block.count) / 2;
+                System.arraycopy(next.items, 0, block.items, block.count,
+                    count);
+                block.count += count;
+                next.count -= count;
+                System.arraycopy(next.items, count, next.items, 0,
+                    next.count);
+                Arrays.fill(next.items, next.count, next.count + count, null);
+            }
+        } else if (block.prev != null) {
+            Block prev = block.prev;
+            if (prev.count + block.count <= blockSize) {
+                System.arraycopy(block.items, 0, prev.items, prev.count,
+                    block.count);
+                prev.count += block.count;
+                unlink(block);
+            } else {
+                int count = (prev.count - block.count) / 2;
+                System.arraycopy(block.items, 0, block.items, count,
+                    block.count);
+                prev.count -= count;
+                System.arraycopy(prev.items, prev.count, block.items, 0,
+                    count);
+                Arrays.fill(prev.items, prev.count, prev.count + count, null);
+                block.count += count;
+            }
+        }
+    }
+
+    /**
+     * Moves the upper half of the items in a full block to a new block that
+     * is linked in after it.
+     *
+     * @param block a full block.
+     * @return the new block.
+     */
+    private Block split(Block block) {
+        Block next = insertBlockAfter(block);
+        int half = block.count / 2;
+        next.count = block.count - half;
+        System.arraycopy(block.items, half, next.items, 0, next.count);
+        for (int i = half; i < block.count; i++) {
+            block.items[i] = null;
+        }
+        block.count = half;
+        return next;
+    }
+
+    /**
+     * Links a new, empty block into the list.
+     *
+     * @param prev the block to link the new block in after, or <tt>null</tt>
+     *  to make it the first block.
+     * @return the new block.
+     */
+    private Block insertBlockAfter(Block prev) {
+        Block block = new Block(blockSize);
+        Block next = prev == null ? first : prev.next;
+        block.prev = prev;
+        block.next = next;
+        if (prev == null) {
+            first = block;
+        } else {
+            prev.next = block;
+        }
+        if (next == null) {
+            last = block;
+        } else {
+            next.prev = block;
+        }
+        return block;
+    }
+
+    /**
+     * Unlinks a block from the list.
+     *
+     * @param block the block to unlink.
+     */
+    private void unlink(Block block) {
+        if (block.prev == null) {
+            first = block.next;
+        } else {
+            block.prev.next = block.next;
+        }
+        if (block.next == null) {
+            last = block.prev;
+        } else {
+            block.next.prev = block.prev;
+        }
+        block.prev = block.next = null;
+    }
+
+    /**
+     * A node of an <tt>UnrolledLinkedList</tt>, which holds its items in the
+     * first <tt>count</tt> elements of an array.
+     */
+    private static class Block {
+        final Object[] items;
+        int count;
+        Block prev;
+        Block next;
+
+        /**
+         * Constructs a new, empty <tt>Block</tt>.
+         *
+         * @param capacity the maximum number of items in the block.
+         */
+        Block(int capacity) {
+            items = new Object[capacity];
+        }
+
+        /**
+         * Inserts an item at the specified offset, shifting the items after
+         * it up by one. The block must not be full.
+         *
+         * @param offset the offset within the block.
+         * @param item the item to insert.
+         */
+        void insert(int offset, Object item) {
+            System.arraycopy(items, offset, items, offset + 1, count - offset);
+            items[offset] = item;
+            count++;
+        }
+    }
+}
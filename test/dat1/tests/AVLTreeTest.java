@@ -0,0 +1,99 @@
+package dat1.tests;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import dat1.AVLTree;
+import dat1.AVLTreeNode;
+import dat1.NoSuchKeyException;
+import dat1.TreeNode;
+import dat1.TreeNodeVisitor;
+import dat1.TreeTraverser;
+
+public class AVLTreeTest extends TestCase {
+
+    private AVLTree<Integer, String> tree;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        tree = new AVLTree<Integer, String>();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        tree = null;
+    }
+
+    public void testSortedInsertKeepsTreeBalanced() {
+        for (int i = 0; i < 10000; i++) {
+            tree.add(i, String.valueOf(i));
+        }
+        assertValid(tree);
+        // a perfectly balanced tree of 10000 nodes has height 14.
+        assertEquals(14, rootHeight(tree));
+    }
+
+    public void testRandomInsertAndRemove() {
+        Random random = new Random(7);
+        boolean[] present = new boolean[2000];
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(present.length);
+            if (random.nextBoolean()) {
+                tree.add(key, String.valueOf(key));
+                present[key] = true;
+            } else if (present[key]) {
+                assertEquals(String.valueOf(key), tree.remove(key));
+                present[key] = false;
+            }
+        }
+        assertValid(tree);
+        for (int key = 0; key < present.length; key++) {
+            try {
+                assertEquals(String.valueOf(key), tree.get(key));
+                assertTrue(present[key]);
+            } catch (NoSuchKeyException e) {
+                assertFalse(present[key]);
+            }
+        }
+    }
+
+    private static int rootHeight(AVLTree<Integer, String> tree) {
+        final int[] height = new int[1];
+        tree.traverse(TreeTraverser.preOrder(
+            new TreeNodeVisitor() {
+                public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                    if (node.getParent() == null) {
+                        height[0] = ((AVLTreeNode<K, V>)node).getHeight();
+                    }
+                }
+            }
+        ));
+        return height[0];
+    }
+
+    private static void assertValid(AVLTree<Integer, String> tree) {
+        tree.traverse(TreeTraverser.postOrder(
+            new TreeNodeVisitor() {
+                public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                    AVLTreeNode<K, V> avlNode = (AVLTreeNode<K, V>)node;
+                    int size = 1;
+                    if (node.getLeftChild() != null) {
+                        size += node.getLeftChild().getSubtreeSize();
+                    }
+                    if (node.getRightChild() != null) {
+                        size += node.getRightChild().getSubtreeSize();
+                    }
+                    assertEquals(size, node.getSubtreeSize());
+                    int left = height(node.getLeftChild());
+                    int right = height(node.getRightChild());
+                    assertEquals(1 + Math.max(left, right), avlNode.getHeight());
+                    assertTrue(Math.abs(avlNode.getBalance()) <= 1);
+                }
+            }
+        ));
+    }
+
+    private static int height(TreeNode<?, ?> node) {
+        return node == null ? 0 : ((AVLTreeNode<?, ?>)node).getHeight();
+    }
+}
@@ -0,0 +1,73 @@
+package dat1.tests;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import dat1.ArrayQueue;
+import dat1.QueueEmptyException;
+
+public class ArrayQueueTest extends TestCase {
+
+    private ArrayQueue<Integer> queue;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        queue = new ArrayQueue<Integer>(4);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        queue = null;
+    }
+
+    public void testEmptyQueue() {
+        assertTrue(queue.isEmpty());
+        assertEquals("[]", queue.toString());
+        try {
+            queue.peek();
+            fail();
+        } catch (QueueEmptyException expected) {
+        }
+        try {
+            queue.dequeue();
+            fail();
+        } catch (QueueEmptyException expected) {
+        }
+    }
+
+    public void testGrowsWhileWrappedAround() {
+        for (int i = 0; i < 3; i++) {
+            queue.enqueue(i);
+        }
+        assertEquals(Integer.valueOf(0), queue.dequeue());
+        assertEquals(Integer.valueOf(1), queue.dequeue());
+        // the tail now wraps around to the start of the array.
+        for (int i = 3; i < 10; i++) {
+            queue.enqueue(i);
+        }
+        assertEquals("[2, 3, 4, 5, 6, 7, 8, 9]", queue.toString());
+        assertTrue(queue.contains(9));
+        assertFalse(queue.contains(1));
+        assertEquals(Integer.valueOf(2), queue.peek());
+        assertEquals(8, queue.size());
+    }
+
+    public void testAgainstArrayDeque() {
+        Random random = new Random(13);
+        ArrayDeque<Integer> expected = new ArrayDeque<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            if (random.nextInt(5) < 3) {
+                queue.enqueue(i);
+                expected.addLast(i);
+            } else if (!expected.isEmpty()) {
+                assertEquals(expected.peekFirst(), queue.peek());
+                assertEquals(expected.removeFirst(), queue.dequeue());
+            } else {
+                assertTrue(queue.isEmpty());
+            }
+            assertEquals(expected.size(), queue.size());
+        }
+        assertEquals(expected.toString(), queue.toString());
+    }
+}
@@ -0,0 +1,70 @@
+package dat1.tests;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import dat1.ArrayStack;
+import dat1.StackEmptyException;
+
+public class ArrayStackTest extends TestCase {
+
+    public void testEmptyStack() {
+        ArrayStack<String> stack = new ArrayStack<String>();
+        assertTrue(stack.isEmpty());
+        assertFalse(stack.contains(null));
+        assertEquals("[]", stack.toString());
+        try {
+            stack.peek();
+            fail();
+        } catch (StackEmptyException expected) {
+        }
+        try {
+            stack.pop();
+            fail();
+        } catch (StackEmptyException expected) {
+        }
+    }
+
+    public void testIndexCountsDuplicates() {
+        ArrayStack<String> stack = new ArrayStack<String>(0, true);
+        stack.push("A");
+        stack.push("B");
+        stack.push("A");
+        stack.push(null);
+        assertEquals("[A, B, A, null]", stack.toString());
+        assertTrue(stack.contains(null));
+        assertNull(stack.pop());
+        assertFalse(stack.contains(null));
+        assertEquals("A", stack.pop());
+        assertTrue(stack.contains("A"));
+        assertEquals("B", stack.pop());
+        assertFalse(stack.contains("B"));
+        assertEquals("A", stack.peek());
+        assertEquals("A", stack.pop());
+        assertFalse(stack.contains("A"));
+        assertTrue(stack.isEmpty());
+    }
+
+    public void testIndexedAndPlainAgainstArrayDeque() {
+        Random random = new Random(17);
+        ArrayStack<Integer> plain = new ArrayStack<Integer>();
+        ArrayStack<Integer> indexed = new ArrayStack<Integer>(1, true);
+        ArrayDeque<Integer> expected = new ArrayDeque<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            Integer item = random.nextInt(100);
+            if (random.nextInt(5) < 3) {
+                plain.push(item);
+                indexed.push(item);
+                expected.push(item);
+            } else if (!expected.isEmpty()) {
+                Integer top = expected.pop();
+                assertEquals(top, plain.pop());
+                assertEquals(top, indexed.pop());
+            }
+            assertEquals(expected.contains(item), plain.contains(item));
+            assertEquals(expected.contains(item), indexed.contains(item));
+            assertEquals(expected.size(), indexed.size());
+        }
+    }
+}
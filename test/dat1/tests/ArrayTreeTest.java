@@ -0,0 +1,54 @@
+package dat1.tests;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+import dat1.ArrayTree;
+import dat1.NoSuchKeyException;
+
+public class ArrayTreeTest extends TestCase {
+
+    private ArrayTree<Integer, String> tree;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        tree = new ArrayTree<Integer, String>(0);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        tree = null;
+    }
+
+    public void testAddGetSetRemove() {
+        assertNull(tree.add(2, "B"));
+        assertNull(tree.add(1, "A"));
+        assertNull(tree.add(3, "C"));
+        assertEquals("B", tree.add(2, "b"));
+        assertEquals("b", tree.set(2, "B"));
+        assertEquals("[A, B, C]", tree.toString());
+        assertEquals("A", tree.remove(1));
+        assertEquals(2, tree.size());
+        try {
+            tree.get(1);
+            fail();
+        } catch (NoSuchKeyException expected) {
+        }
+    }
+
+    public void testAgainstTreeMap() {
+        Random random = new Random(3);
+        TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+        for (int i = 0; i < 50000; i++) {
+            Integer key = random.nextInt(5000);
+            if (random.nextInt(3) > 0) {
+                assertEquals(expected.put(key, "v" + i), tree.add(key, "v" + i));
+            } else if (expected.containsKey(key)) {
+                assertEquals(expected.remove(key), tree.remove(key));
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(expected.values().toString(), tree.toString());
+    }
+}
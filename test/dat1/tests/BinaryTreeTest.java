@@ -0,0 +1,495 @@
+package dat1.tests;
+
+import java.lang.management.ManagementFactory;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+import dat1.AVLTree;
+import dat1.BinaryTree;
+import dat1.LinkedList;
+import dat1.Metrics;
+import dat1.MetricsSnapshot;
+import dat1.NoSuchKeyException;
+import dat1.RedBlackTree;
+import dat1.TreeNode;
+import dat1.TreeNodeVisitor;
+import dat1.TreeTraverser;
+
+public class BinaryTreeTest extends TestCase {
+
+    private BinaryTree<String, String> tree;
+    
+    protected void setUp() throws Exception {
+        super.setUp();
+        tree = new BinaryTree<String, String>();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        tree = null;
+    }
+
+    public void testAddToBinaryTree() {
+        tree.add("A", "A");
+    }
+
+    public void testFromSortedBuildsBalancedTree() {
+        Integer[] keys = new Integer[1000];
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+            values[i] = String.valueOf(i);
+        }
+        BinaryTree<Integer, String> tree = BinaryTree.fromSorted(keys, values);
+        assertEquals(1000, tree.size());
+        assertEquals(10, height(tree));
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(values[i], tree.get(i));
+        }
+        tree = BinaryTree.fromSorted(new LinkedList<Integer>(keys), 
+            new LinkedList<String>(values));
+        assertEquals(10, height(tree));
+        assertEquals(new LinkedList<String>(values).toString(), tree.toString());
+    }
+
+    public void testFromSortedRejectsUnsortedKeys() {
+        try {
+            BinaryTree.fromSorted(new String[] { "A", "C", "B" }, 
+                new String[] { "A", "C", "B" });
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testFromSortedRejectsNegativeSize() {
+        try {
+            BinaryTree.fromSorted(new LinkedList<String>().iterator(),
+                new LinkedList<String>().iterator(), -1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testFromUnsorted() {
+        tree = BinaryTree.fromUnsorted(
+            new String[] { "D", "B", "A", "C", "B", "E" },
+            new String[] { "d", "b1", "a", "c", "b2", "e" });
+        assertEquals(5, tree.size());
+        assertEquals("[a, b2, c, d, e]", tree.toString());
+        assertEquals(3, height(tree));
+    }
+
+    public void testNavigation() {
+        for (String key : new String[] { "B", "D", "F", "H" }) {
+            tree.add(key, key.toLowerCase());
+        }
+        assertEquals("B", tree.first());
+        assertEquals("H", tree.last());
+        assertEquals("D", tree.floor("D"));
+        assertEquals("D", tree.floor("E"));
+        assertEquals("F", tree.ceiling("E"));
+        assertEquals("B", tree.lower("D"));
+        assertEquals("F", tree.higher("D"));
+        try {
+            tree.lower("B");
+            fail();
+        } catch (NoSuchKeyException expected) {
+        }
+        try {
+            tree.higher("H");
+            fail();
+        } catch (NoSuchKeyException expected) {
+        }
+        StringBuffer str = new StringBuffer();
+        for (TreeNode<String, String> node : tree.range("C", "H")) {
+            str.append(node.getValue());
+        }
+        assertEquals("df", str.toString());
+        assertFalse(tree.range("I", "Z").iterator().hasNext());
+    }
+
+    public void testRankAndSelect() {
+        BinaryTree<Integer, String> tree = new BinaryTree<Integer, String>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) > 0) {
+                tree.add(key, String.valueOf(key));
+                expected.add(key);
+            } else if (expected.remove(key)) {
+                tree.remove(key);
+            }
+        }
+        int index = 0;
+        for (Integer key : expected) {
+            assertEquals(index, tree.rank(key));
+            assertEquals(key, tree.select(index));
+            index++;
+        }
+        assertEquals(expected.headSet(250).size(), tree.rank(250));
+        StringBuffer str = new StringBuffer();
+        for (TreeNode<Integer, String> node : tree.slice(10, 13)) {
+            str.append(node.getKey()).append(' ');
+        }
+        Iterator<Integer> keys = expected.iterator();
+        for (int i = 0; i < 10; i++) {
+            keys.next();
+        }
+        assertEquals(keys.next() + " " + keys.next() + " " + keys.next() + " ", 
+            str.toString());
+        try {
+            tree.select(tree.size());
+            fail();
+        } catch (IndexOutOfBoundsException expectedException) {
+        }
+    }
+
+    public void testViews() {
+        Random random = new Random(3);
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        BinaryTree<Integer, String> tree = new BinaryTree<Integer, String>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(20000);
+            expected.add(key);
+            tree.add(key, String.valueOf(key));
+        }
+        StringBuilder keys = new StringBuilder();
+        for (Integer key : tree.keys()) {
+            keys.append(key).append(',');
+        }
+        StringBuilder values = new StringBuilder();
+        for (String value : tree.values()) {
+            values.append(value).append(',');
+        }
+        StringBuilder entries = new StringBuilder();
+        for (TreeNode<Integer, String> node : tree.entries()) {
+            entries.append(node.getKey()).append(',');
+        }
+        StringBuilder all = new StringBuilder();
+        for (Integer key : expected) {
+            all.append(key).append(',');
+        }
+        assertEquals(all.toString(), keys.toString());
+        assertEquals(all.toString(), values.toString());
+        assertEquals(all.toString(), entries.toString());
+        
+        Spliterator<Integer> spliterator = tree.keys().spliterator();
+        assertEquals(expected.size(), spliterator.getExactSizeIfKnown());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SORTED));
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(expected.size(), prefix.estimateSize() 
+            + spliterator.estimateSize());
+        
+        assertEquals(expected.toString(), tree.stream()
+            .collect(Collectors.toList()).toString());
+        assertEquals(expected.toString(), tree.stream().parallel()
+            .collect(Collectors.toList()).toString());
+        assertEquals(Long.valueOf(expected.size()), StreamSupport.stream(
+            tree.keys().spliterator(), true).collect(Collectors.counting()));
+        assertFalse(new BinaryTree<Integer, String>().keys().iterator().hasNext());
+    }
+
+    public void testMetrics() throws Exception {
+        BinaryTree<Integer, String> tree = new BinaryTree<Integer, String>();
+        assertNull(tree.getMetrics());
+        Metrics metrics = tree.enableMetrics();
+        assertSame(metrics, tree.enableMetrics());
+        for (int i = 1; i <= 100; i++) { // degenerates into a list
+            tree.add(i, String.valueOf(i));
+        }
+        assertEquals(100, metrics.getHeight());
+        assertEquals(100, metrics.getSearches());
+        assertEquals(100, metrics.getNodeAllocations());
+        assertEquals(99 * 100 / 2, metrics.getComparisons());
+        assertEquals(99, metrics.getMaxPathLength());
+        
+        metrics.reset();
+        tree.get(100);
+        tree.set(50, "fifty");
+        assertEquals(2, metrics.getSearches());
+        assertEquals(150, metrics.getComparisons());
+        assertEquals(100, metrics.getMaxPathLength());
+        assertEquals(75.0, metrics.getAveragePathLength());
+        assertEquals(75.0, metrics.getComparisonsPerSearch());
+        assertEquals(0, metrics.getNodeAllocations());
+        try {
+            tree.get(101);
+            fail("expected NoSuchKeyException");
+        } catch (NoSuchKeyException e) {
+        }
+        assertEquals(3, metrics.getSearches());
+        
+        MetricsSnapshot snapshot = metrics.snapshot();
+        tree.remove(1);
+        assertEquals(3, snapshot.getSearches());
+        assertEquals(100, snapshot.getHeight());
+        assertEquals(100, metrics.getHeight()); // removals do not lower it
+        assertEquals(4, metrics.getSearches());
+        tree.rebalance();
+        assertEquals(7, metrics.getHeight());
+        
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("dat1:type=BinaryTree,name=test");
+        server.registerMBean(metrics, name);
+        try {
+            assertEquals(7, server.getAttribute(name, "Height"));
+            assertEquals(4L, server.getAttribute(name, "Searches"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, metrics.getSearches());
+        } finally {
+            server.unregisterMBean(name);
+        }
+        
+        tree.disableMetrics();
+        assertNull(tree.getMetrics());
+        tree.get(100);
+        assertEquals(0L, metrics.getSearches());
+    }
+
+    public void testMetricsHeight() {
+        BinaryTree<Integer, String> tree = new BinaryTree<Integer, String>();
+        for (int key : new int[] { 4, 2, 6, 1 }) {
+            tree.add(key, null);
+        }
+        Metrics metrics = tree.enableMetrics(); // measures the tree once
+        assertEquals(3, metrics.getHeight());
+        tree.add(7, null);
+        assertEquals(3, metrics.getHeight());
+        tree.add(8, null);
+        assertEquals(4, metrics.getHeight());
+        for (int key : new int[] { 1, 2, 4, 6, 7, 8 }) {
+            tree.remove(key);
+        }
+        assertEquals(0, metrics.getHeight());
+        
+        AVLTree<Integer, String> avl = new AVLTree<Integer, String>();
+        metrics = avl.enableMetrics();
+        assertEquals(0, metrics.getHeight());
+        for (int i = 0; i < 1000; i++) {
+            avl.add(i, null);
+            assertTrue(metrics.getHeight() >= avl.height());
+        }
+        assertTrue(metrics.getHeight() <= 1.44 * Math.log(1002) / Math.log(2) + 1);
+    }
+
+    public void testRebalance() {
+        BinaryTree<Integer, String> tree = new BinaryTree<Integer, String>();
+        assertEquals(0, tree.height());
+        assertTrue(tree.isBalanced());
+        tree.rebalance();
+        for (int key : new int[] { 2, 1, 3, 4 }) {
+            tree.add(key, null);
+        }
+        assertEquals(3, tree.height());
+        assertTrue(tree.isBalanced());
+        tree.add(5, null); // 3 has no left child, but a right subtree of two
+        assertEquals(4, tree.height());
+        assertFalse(tree.isBalanced());
+        tree = new BinaryTree<Integer, String>();
+        for (int i = 0; i < 1000; i++) {
+            tree.add(i, String.valueOf(i));
+        }
+        assertEquals(1000, tree.height());
+        assertFalse(tree.isBalanced());
+        
+        Metrics metrics = tree.enableMetrics();
+        tree.rebalance();
+        assertEquals(0, metrics.getNodeAllocations());
+        assertEquals(10, tree.height());
+        assertEquals(10, height(tree));
+        assertTrue(tree.isBalanced());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(String.valueOf(i), tree.get(i));
+            assertEquals(i, tree.rank(i));
+            assertEquals(Integer.valueOf(i), tree.select(i));
+        }
+        assertEquals(10, metrics.getMaxPathLength());
+        
+        for (int n = 1; n < 70; n++) { // every shape of the lowest level
+            BinaryTree<Integer, String> small = new BinaryTree<Integer, String>();
+            for (int i = n; i > 0; i--) {
+                small.add(i, null);
+            }
+            small.rebalance();
+            assertEquals(32 - Integer.numberOfLeadingZeros(n), small.height());
+            assertTrue(small.isBalanced());
+            assertEquals(n, small.size());
+            assertEquals(Integer.valueOf(1), small.first());
+            assertEquals(Integer.valueOf(n), small.last());
+        }
+    }
+    
+    public void testAutoRebalance() {
+        Random random = new Random(17);
+        BinaryTree<Integer, String> tree = new BinaryTree<Integer, String>();
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        try {
+            tree.setAutoRebalance(1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        tree.setAutoRebalance(2);
+        for (int i = 0; i < 20000; i++) {
+            int key = i % 3 == 0 ? random.nextInt() : i; // mostly sorted
+            tree.add(key, null);
+            expected.add(key);
+            if (i % 5 == 0) {
+                int victim = expected.first();
+                tree.remove(victim);
+                expected.remove(victim);
+            }
+        }
+        assertEquals(expected.size(), tree.size());
+        double limit = 2 * Math.log(tree.size()) / Math.log(2);
+        assertTrue(tree.height() <= limit + 1);
+        StringBuilder keys = new StringBuilder();
+        for (Integer key : tree.keys()) {
+            keys.append(key).append(',');
+        }
+        StringBuilder all = new StringBuilder();
+        for (Integer key : expected) {
+            all.append(key).append(',');
+        }
+        assertEquals(all.toString(), keys.toString());
+        assertEquals(expected.size() / 2, tree.rank(tree.select(expected.size() / 2)));
+        
+        RedBlackTree<Integer, String> redBlack = new RedBlackTree<Integer, String>();
+        for (int i = 0; i < 100; i++) {
+            redBlack.add(i, null);
+        }
+        int height = redBlack.height();
+        redBlack.rebalance(); // must leave the colors intact
+        assertEquals(height, redBlack.height());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testRemoveAgainstTreeMap() {
+        BinaryTree<Integer, String> rebalancing = new BinaryTree<Integer, String>();
+        rebalancing.setAutoRebalance(2);
+        BinaryTree<Integer, String>[] trees = new BinaryTree[] {
+            new BinaryTree<Integer, String>(), rebalancing,
+            new RedBlackTree<Integer, String>(), new AVLTree<Integer, String>()
+        };
+        for (BinaryTree<Integer, String> tree : trees) {
+            Random random = new Random(41);
+            TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+            for (int i = 0; i < 30000; i++) {
+                Integer key = random.nextInt(i % 2000 < 1000 ? 300 : 3000);
+                switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.put(key, "v" + i), tree.add(key, "v" + i));
+                    break;
+                case 2:
+                    if (expected.containsKey(key)) {
+                        assertEquals(expected.remove(key), tree.remove(key));
+                    }
+                    break;
+                case 3: // the root has zero, one or two children
+                    if (tree.size() > 0) {
+                        key = root(tree).getKey();
+                        assertEquals(expected.remove(key), tree.remove(key));
+                    }
+                    break;
+                }
+                assertEquals(expected.size(), tree.size());
+                if (i % 500 == 0) {
+                    checkStructure(tree);
+                }
+            }
+            checkStructure(tree);
+            assertEquals(expected.values().toString(), tree.toString());
+        }
+    }
+    
+    public void testRemoveRelinksNodesInPlace() {
+        BinaryTree<Integer, String> tree = new BinaryTree<Integer, String>();
+        for (int key : new int[] { 50, 30, 70, 20, 40, 60, 80, 10, 90 }) {
+            tree.add(key, String.valueOf(key));
+        }
+        IdentityHashMap<TreeNode<Integer, String>, Boolean> nodes = 
+            new IdentityHashMap<TreeNode<Integer, String>, Boolean>();
+        for (TreeNode<Integer, String> node : tree.entries()) {
+            nodes.put(node, Boolean.TRUE);
+        }
+        Metrics metrics = tree.enableMetrics();
+        while (tree.size() > 0) {
+            TreeNode<Integer, String> root = root(tree);
+            assertEquals(root.getValue(), tree.remove(root.getKey()));
+            assertNull(root.getParent());
+            assertNull(root.getLeftChild());
+            assertNull(root.getRightChild());
+            for (TreeNode<Integer, String> node : tree.entries()) {
+                assertTrue(nodes.containsKey(node));
+            }
+            checkStructure(tree);
+        }
+        assertEquals(0, metrics.getNodeAllocations());
+    }
+
+    private static <K extends Comparable<K>, V> TreeNode<K, V> root(
+            BinaryTree<K, V> tree) {
+        TreeNode<K, V> node = tree.entries().iterator().next();
+        while (node.getParent() != null) {
+            node = node.getParent();
+        }
+        return node;
+    }
+
+    /**
+     * Checks the parent links, subtree sizes and key order of every node.
+     */
+    private static void checkStructure(BinaryTree<Integer, ?> tree) {
+        if (tree.size() == 0) {
+            return;
+        }
+        assertEquals(tree.size(), root(tree).getSubtreeSize());
+        tree.traverse(TreeTraverser.preOrder(
+            new TreeNodeVisitor() {
+                public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                    int size = 1;
+                    TreeNode<K, V> left = node.getLeftChild();
+                    if (left != null) {
+                        assertSame(node, left.getParent());
+                        assertTrue(left.getKey().compareTo(node.getKey()) < 0);
+                        size += left.getSubtreeSize();
+                    }
+                    TreeNode<K, V> right = node.getRightChild();
+                    if (right != null) {
+                        assertSame(node, right.getParent());
+                        assertTrue(right.getKey().compareTo(node.getKey()) > 0);
+                        size += right.getSubtreeSize();
+                    }
+                    assertEquals(size, node.getSubtreeSize());
+                }
+            }
+        ));
+    }
+
+    private static int height(BinaryTree<?, ?> tree) {
+        final int[] height = new int[1];
+        tree.traverse(TreeTraverser.preOrder(
+            new TreeNodeVisitor() {
+                public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                    int depth = 1;
+                    for (TreeNode<K, V> n = node; n.getParent() != null; n = n.getParent()) {
+                        depth++;
+                    }
+                    height[0] = Math.max(height[0], depth);
+                }
+            }
+        ));
+        return height[0];
+    }
+}
@@ -0,0 +1,101 @@
+package dat1.tests;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+import dat1.BoundedBlockingQueue;
+import dat1.LinkedList;
+import dat1.QueueEmptyException;
+import dat1.QueueFullException;
+
+public class BoundedBlockingQueueTest extends TestCase {
+
+    private BoundedBlockingQueue<Integer> queue;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        queue = new BoundedBlockingQueue<Integer>(3);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        queue = null;
+    }
+
+    public void testFailFast() {
+        assertNull(queue.poll());
+        try {
+            queue.dequeue();
+            fail();
+        } catch (QueueEmptyException expected) {
+        }
+        for (int i = 0; i < 3; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(3));
+        try {
+            queue.enqueue(3);
+            fail();
+        } catch (QueueFullException expected) {
+        }
+        assertEquals("[0, 1, 2]", queue.toString());
+        assertEquals(Integer.valueOf(0), queue.peek());
+        assertEquals(Integer.valueOf(0), queue.dequeue());
+        assertEquals(2, queue.size());
+    }
+
+    public void testTimedOfferAndPollTimeOut() throws InterruptedException {
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        for (int i = 0; i < 3; i++) {
+            queue.put(i);
+        }
+        long start = System.nanoTime();
+        assertFalse(queue.offer(3, 20, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    public void testDrainTo() {
+        for (int i = 0; i < 3; i++) {
+            queue.enqueue(i);
+        }
+        LinkedList<Number> batch = new LinkedList<Number>();
+        assertEquals(2, queue.drainTo(batch, 2));
+        assertEquals("[0, 1]", batch.toString());
+        assertEquals(1, queue.drainTo(batch, 10));
+        assertEquals("[0, 1, 2]", batch.toString());
+        assertEquals(0, queue.drainTo(batch, 10));
+        assertTrue(queue.isEmpty());
+    }
+
+    public void testProducerBlocksUntilConsumerDrains() throws Throwable {
+        final int items = 100000;
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread producer = new Thread() {
+            public void run() {
+                try {
+                    for (int i = 0; i < items; i++) {
+                        queue.put(i);
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        };
+        producer.start();
+        LinkedList<Integer> batch = new LinkedList<Integer>();
+        int expected = 0;
+        while (expected < items) {
+            batch.addLast(queue.take());
+            queue.drainTo(batch, 2);
+            while (batch.size() > 0) {
+                assertEquals(Integer.valueOf(expected++), batch.removeFirst());
+            }
+        }
+        producer.join();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,207 @@
+package dat1.tests;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+import dat1.ConcurrentQueue;
+import dat1.MpmcQueue;
+import dat1.QueueEmptyException;
+import dat1.QueueFullException;
+import dat1.SpscQueue;
+
+public class ConcurrentQueueTest extends TestCase {
+
+    private static final int ITEMS = 200000;
+    private static final long TIMEOUT = 60000;
+
+    public void testBoundsAndExceptions() {
+        for (ConcurrentQueue<Integer> queue : queues(3)) {
+            assertEquals(4, queue.capacity());
+            assertTrue(queue.isEmpty());
+            assertNull(queue.poll());
+            try {
+                queue.dequeue();
+                fail();
+            } catch (QueueEmptyException expected) {
+            }
+            for (int i = 0; i < 4; i++) {
+                queue.enqueue(i);
+            }
+            assertFalse(queue.offer(4));
+            try {
+                queue.enqueue(4);
+                fail();
+            } catch (QueueFullException expected) {
+            }
+            try {
+                queue.offer(null);
+                fail();
+            } catch (NullPointerException expected) {
+            }
+            assertEquals(4, queue.size());
+            // wrap around the ring buffer a few times.
+            for (int i = 4; i < 20; i++) {
+                assertEquals(Integer.valueOf(i - 4), queue.dequeue());
+                queue.enqueue(i);
+            }
+            assertEquals(Integer.valueOf(16), queue.poll());
+            assertEquals(3, queue.size());
+        }
+    }
+
+    public void testSpscPeek() {
+        SpscQueue<String> queue = new SpscQueue<String>(2);
+        queue.enqueue("A");
+        assertEquals("A", queue.peek());
+        assertEquals("A", queue.dequeue());
+        try {
+            queue.peek();
+            fail();
+        } catch (QueueEmptyException expected) {
+        }
+    }
+
+    public void testSpscPreservesOrder() throws Throwable {
+        final SpscQueue<Integer> queue = new SpscQueue<Integer>(64);
+        final long[] sum = new long[1];
+        run(new Task() {
+            public void run() throws InterruptedException {
+                for (int i = 0; i < ITEMS; i++) {
+                    queue.put(i);
+                }
+            }
+        }, new Task() {
+            public void run() throws InterruptedException {
+                for (int i = 0; i < ITEMS; i++) {
+                    int item = queue.take();
+                    assertEquals(i, item);
+                    sum[0] += item;
+                }
+            }
+        });
+        assertEquals((long)ITEMS * (ITEMS - 1) / 2, sum[0]);
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Four producers each put a disjoint range of items, and four consumers 
+     * take them. Every item must be taken exactly once, and each consumer 
+     * must see the items of each producer in the order they were put.
+     */
+    public void testMpmcDeliversEveryItemOnce() throws Throwable {
+        final int threads = 4;
+        final int perProducer = ITEMS / threads;
+        final MpmcQueue<Integer> queue = new MpmcQueue<Integer>(64);
+        final boolean[] taken = new boolean[threads * perProducer];
+        Task[] tasks = new Task[2 * threads];
+        for (int t = 0; t < threads; t++) {
+            final int producer = t;
+            tasks[t] = new Task() {
+                public void run() throws InterruptedException {
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.put(producer * perProducer + i);
+                    }
+                }
+            };
+            tasks[threads + t] = new Task() {
+                public void run() throws InterruptedException {
+                    int[] last = { -1, -1, -1, -1 };
+                    for (int i = 0; i < perProducer; i++) {
+                        int item = queue.take();
+                        int producer = item / perProducer;
+                        assertTrue(item > last[producer]);
+                        last[producer] = item;
+                        synchronized (taken) {
+                            assertFalse(taken[item]);
+                            taken[item] = true;
+                        }
+                    }
+                }
+            };
+        }
+        run(tasks);
+        for (boolean b : taken) {
+            assertTrue(b);
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    public void testTakeIsInterruptible() throws Exception {
+        final MpmcQueue<Integer> queue = new MpmcQueue<Integer>(1);
+        final AtomicReference<Throwable> thrown = new AtomicReference<Throwable>();
+        Thread consumer = new Thread() {
+            public void run() {
+                try {
+                    queue.take();
+                } catch (Throwable t) {
+                    thrown.set(t);
+                }
+            }
+        };
+        consumer.start();
+        consumer.interrupt();
+        consumer.join(10000);
+        assertTrue(thrown.get() instanceof InterruptedException);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentQueue<Integer>[] queues(int capacity) {
+        return new ConcurrentQueue[] {
+            new SpscQueue<Integer>(capacity), new MpmcQueue<Integer>(capacity)
+        };
+    }
+
+    private interface Task {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Runs each task on a thread of its own. The first task to fail
+     * interrupts all others, so that threads that are blocked on a full or
+     * empty queue give up instead of hanging the test.
+     */
+    private static void run(final Task... tasks) throws Throwable {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final Thread[] threads = new Thread[tasks.length];
+        for (int i = 0; i < tasks.length; i++) {
+            final Task task = tasks[i];
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        task.run();
+                    } catch (Throwable t) {
+                        if (failure.compareAndSet(null, t)) {
+                            for (Thread thread : threads) {
+                                if (thread != this) {
+                                    thread.interrupt();
+                                }
+                            }
+                        }
+                    }
+                }
+            };
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        for (Thread thread : threads) {
+            thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        for (Thread thread : threads) {
+            if (thread.isAlive()) {
+                for (Thread other : threads) {
+                    other.interrupt();
+                }
+                fail("timed out after " + TIMEOUT + " ms");
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package dat1.tests;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+import dat1.ConcurrentSkipList;
+import dat1.NoSuchKeyException;
+
+public class ConcurrentSkipListTest extends TestCase {
+
+    private static final int THREADS = 8;
+
+    private ConcurrentSkipList<Integer, Integer> list;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        list = new ConcurrentSkipList<Integer, Integer>();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        list = null;
+    }
+
+    public void testSequentialAgainstTreeMap() {
+        Random random = new Random(5);
+        TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+        for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(1000);
+            if (random.nextInt(3) > 0) {
+                assertEquals(expected.put(key, i), list.add(key, i));
+            } else if (expected.containsKey(key)) {
+                assertEquals(expected.remove(key), list.remove(key));
+            } else {
+                try {
+                    list.remove(key);
+                    fail();
+                } catch (NoSuchKeyException e) {
+                }
+            }
+        }
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected.values().toString(), list.toString());
+    }
+
+    /**
+     * Every thread owns a disjoint set of keys and mirrors its own changes in
+     * a private <tt>TreeMap</tt>. Afterwards the list must hold exactly the
+     * union of those maps.
+     */
+    public void testDisjointWriters() throws Throwable {
+        final TreeMap<Integer, Integer>[] models = newModels();
+        run(new Task() {
+            public void run(int thread) {
+                Random random = new Random(thread);
+                TreeMap<Integer, Integer> model = models[thread];
+                for (int i = 0; i < 20000; i++) {
+                    Integer key = random.nextInt(500) * THREADS + thread;
+                    if (random.nextBoolean()) {
+                        assertEquals(model.put(key, i), list.add(key, i));
+                    } else if (model.containsKey(key)) {
+                        assertEquals(model.remove(key), list.remove(key));
+                    }
+                }
+            }
+        });
+        TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+        for (TreeMap<Integer, Integer> model : models) {
+            expected.putAll(model);
+        }
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected.values().toString(), list.toString());
+    }
+
+    /**
+     * All threads add and remove the same few keys. Each successful
+     * <tt>add()</tt> of an absent key must be matched by at most one
+     * successful <tt>remove()</tt>, so for every key the number of inserts
+     * minus the number of removals must be one if the key is present at the
+     * end, and zero otherwise.
+     */
+    public void testContendedAddAndRemove() throws Throwable {
+        final int keys = 16;
+        final int[][] inserted = new int[THREADS][keys];
+        final int[][] removed = new int[THREADS][keys];
+        run(new Task() {
+            public void run(int thread) {
+                Random random = new Random(thread);
+                for (int i = 0; i < 50000; i++) {
+                    int key = random.nextInt(keys);
+                    if (random.nextBoolean()) {
+                        if (list.add(key, thread) == null) {
+                            inserted[thread][key]++;
+                        }
+                    } else {
+                        try {
+                            list.remove(key);
+                            removed[thread][key]++;
+                        } catch (NoSuchKeyException e) {
+                        }
+                    }
+                }
+            }
+        });
+        int size = 0;
+        for (int key = 0; key < keys; key++) {
+            int balance = 0;
+            for (int thread = 0; thread < THREADS; thread++) {
+                balance += inserted[thread][key] - removed[thread][key];
+            }
+            boolean present = true;
+            try {
+                list.get(key);
+            } catch (NoSuchKeyException e) {
+                present = false;
+            }
+            assertEquals("key " + key, present ? 1 : 0, balance);
+            size += balance;
+        }
+        assertEquals(size, list.size());
+    }
+
+    /**
+     * A single writer per key stores increasing values, while readers keep
+     * looking the keys up. A linearizable map can never show a reader a
+     * value that is older than one it has already seen.
+     */
+    public void testReadersNeverSeeOlderValues() throws Throwable {
+        final int keys = 64;
+        for (int key = 0; key < keys; key++) {
+            list.add(key, 0);
+        }
+        final AtomicBoolean done = new AtomicBoolean();
+        run(new Task() {
+            public void run(int thread) {
+                if (thread < THREADS / 2) {
+                    for (int value = 1; value <= 20000; value++) {
+                        for (int key = thread; key < keys; key += THREADS / 2) {
+                            list.set(key, value);
+                        }
+                    }
+                    done.set(true);
+                } else {
+                    int[] seen = new int[keys];
+                    while (!done.get()) {
+                        for (int key = 0; key < keys; key++) {
+                            int value = list.get(key);
+                            assertTrue(value >= seen[key]);
+                            seen[key] = value;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TreeMap<Integer, Integer>[] newModels() {
+        TreeMap<Integer, Integer>[] models = new TreeMap[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            models[i] = new TreeMap<Integer, Integer>();
+        }
+        return models;
+    }
+
+    private interface Task {
+        void run(int thread);
+    }
+
+    private static void run(final Task task) throws Throwable {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        task.run(thread);
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+}
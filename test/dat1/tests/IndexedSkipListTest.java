@@ -0,0 +1,78 @@
+package dat1.tests;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import dat1.IndexedSkipList;
+
+public class IndexedSkipListTest extends TestCase {
+
+    public void testEmptyList() {
+        IndexedSkipList<String> list = new IndexedSkipList<String>();
+        assertEquals(0, list.size());
+        assertNull(list.getFirst());
+        assertNull(list.getLast());
+        assertNull(list.removeFirst());
+        assertEquals("[]", list.toString());
+        try {
+            list.get(0);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            list.add(1, "A");
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    public void testAgainstArrayList() {
+        Random random = new Random(23);
+        IndexedSkipList<Integer> list = new IndexedSkipList<Integer>();
+        ArrayList<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 50000; i++) {
+            int size = expected.size();
+            switch (random.nextInt(7)) {
+            case 0:
+                list.addFirst(i);
+                expected.add(0, i);
+                break;
+            case 1:
+                list.addLast(i);
+                expected.add(i);
+                break;
+            case 2:
+                int index = random.nextInt(size + 1);
+                list.add(index, i);
+                expected.add(index, i);
+                break;
+            case 3:
+                if (size > 0) {
+                    index = random.nextInt(size);
+                    assertEquals(expected.remove(index), list.remove(index));
+                }
+                break;
+            case 4:
+                assertEquals(size == 0 ? null : expected.remove(size - 1), 
+                    list.removeLast());
+                break;
+            default:
+                if (size > 0) {
+                    index = random.nextInt(size);
+                    assertEquals(expected.get(index), list.get(index));
+                    assertEquals(expected.set(index, -i), list.set(index, -i));
+                    assertEquals(expected.get(size - 1), list.getLast());
+                }
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected.toString(), list.toString());
+        Integer item = expected.get(expected.size() / 2);
+        assertEquals(expected.indexOf(item), list.indexOf(item));
+        assertEquals(expected.lastIndexOf(item), list.lastIndexOf(item));
+        while (list.size() > 0) {
+            assertEquals(expected.remove(0), list.removeFirst());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dat1.tests;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+import dat1.IntKeyTree;
+import dat1.NoSuchKeyException;
+
+public class IntKeyTreeTest extends TestCase {
+
+    private IntKeyTree<String> tree;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        tree = new IntKeyTree<String>(0);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        tree = null;
+    }
+
+    public void testExtremeKeys() {
+        assertNull(tree.add(0, "zero"));
+        assertNull(tree.add(Integer.MAX_VALUE, "max"));
+        assertNull(tree.add(Integer.MIN_VALUE, "min"));
+        assertNull(tree.add(-1, "minus one"));
+        assertEquals("[min, minus one, zero, max]", tree.toString());
+        assertEquals("min", tree.get(Integer.MIN_VALUE));
+        assertEquals("max", tree.set(Integer.MAX_VALUE, "MAX"));
+        assertEquals("min", tree.remove(Integer.MIN_VALUE));
+        assertEquals("[minus one, zero, MAX]", tree.toString());
+        try {
+            tree.remove(Integer.MIN_VALUE);
+            fail();
+        } catch (NoSuchKeyException expected) {
+        }
+        assertEquals(3, tree.size());
+    }
+
+    public void testAgainstTreeMap() {
+        Random random = new Random(7);
+        int[] pool = new int[5000];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = i % 2 == 0 ? random.nextInt() : random.nextInt(1000) - 500;
+        }
+        pool[0] = Integer.MIN_VALUE;
+        pool[1] = Integer.MAX_VALUE;
+        pool[2] = Integer.MIN_VALUE + 1;
+        pool[3] = Integer.MAX_VALUE - 1;
+        TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+        for (int i = 0; i < 50000; i++) {
+            int key = pool[random.nextInt(pool.length)];
+            if (random.nextInt(3) > 0) {
+                assertEquals(expected.put(key, "v" + i), tree.add(key, "v" + i));
+            } else if (expected.containsKey(key)) {
+                assertEquals(expected.remove(key), tree.remove(key));
+            } else {
+                try {
+                    tree.remove(key);
+                    fail();
+                } catch (NoSuchKeyException e) {
+                }
+                try {
+                    tree.get(key);
+                    fail();
+                } catch (NoSuchKeyException e) {
+                }
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(expected.values().toString(), tree.toString());
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), tree.get(key));
+        }
+    }
+}
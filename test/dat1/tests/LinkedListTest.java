@@ -0,0 +1,279 @@
+package dat1.tests;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import dat1.LinkedList;
+import dat1.Metrics;
+
+public class LinkedListTest extends TestCase {
+
+    /**
+     * Mixes positional access with changes at both ends and in the middle,
+     * which all have to keep the cached finger in step.
+     */
+    public void testPositionalAccessAgainstArrayList() {
+        Random random = new Random(29);
+        LinkedList<Integer> list = new LinkedList<Integer>();
+        ArrayList<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            int size = expected.size();
+            switch (random.nextInt(8)) {
+            case 0:
+                list.addFirst(i);
+                expected.add(0, i);
+                break;
+            case 1:
+                list.addLast(i);
+                expected.add(i);
+                break;
+            case 2:
+                int index = random.nextInt(size + 1);
+                list.add(index, i);
+                expected.add(index, i);
+                break;
+            case 3:
+                if (size > 0) {
+                    index = random.nextInt(size);
+                    assertEquals(expected.remove(index), list.remove(index));
+                }
+                break;
+            case 4:
+                assertEquals(size == 0 ? null : expected.remove(0), 
+                    list.removeFirst());
+                break;
+            case 5:
+                assertEquals(size == 0 ? null : expected.remove(size - 1), 
+                    list.removeLast());
+                break;
+            default:
+                if (size > 0) {
+                    index = random.nextInt(size);
+                    assertEquals(expected.get(index), list.get(index));
+                    assertEquals(expected.set(index, -i), list.set(index, -i));
+                }
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected.toString(), list.toString());
+    }
+
+    public void testAscendingLoop() {
+        LinkedList<Integer> list = new LinkedList<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            list.addLast(i);
+        }
+        long sum = 0;
+        for (int i = 0; i < list.size(); i++) { // O(n) thanks to the finger
+            sum += list.get(i);
+        }
+        for (int i = list.size() - 1; i >= 0; i--) {
+            list.set(i, i + 1);
+        }
+        assertEquals(100000L * 99999 / 2, sum);
+        assertEquals(Integer.valueOf(100000), list.getLast());
+    }
+
+    public void testFilterInPlace() {
+        LinkedList<Integer> list = new LinkedList<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            list.addLast(i);
+        }
+        Iterator<Integer> it = list.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 3 != 0) {
+                it.remove();
+            }
+        }
+        assertEquals(33334, list.size());
+        int expected = 0;
+        for (Integer item : list) {
+            assertEquals(expected, item.intValue());
+            expected += 3;
+        }
+        assertEquals(Integer.valueOf(99999), list.getLast());
+    }
+
+    public void testListIteratorAgainstArrayList() {
+        Random random = new Random(31);
+        LinkedList<Integer> list = new LinkedList<Integer>();
+        ArrayList<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 10; i++) {
+            list.addLast(i);
+            expected.add(i);
+        }
+        ListIterator<Integer> it = list.listIterator(5);
+        ListIterator<Integer> expectedIt = expected.listIterator(5);
+        for (int i = 0; i < 20000; i++) {
+            switch (random.nextInt(6)) {
+            case 0:
+                if (expectedIt.hasNext()) {
+                    assertEquals(expectedIt.next(), it.next());
+                }
+                break;
+            case 1:
+                if (expectedIt.hasPrevious()) {
+                    assertEquals(expectedIt.previous(), it.previous());
+                }
+                break;
+            case 2:
+                expectedIt.add(i);
+                it.add(i);
+                break;
+            case 3:
+                try {
+                    expectedIt.remove();
+                } catch (IllegalStateException e) {
+                    try {
+                        it.remove();
+                        fail();
+                    } catch (IllegalStateException expectedException) {
+                    }
+                    break;
+                }
+                it.remove();
+                break;
+            case 4:
+                try {
+                    expectedIt.set(-i);
+                } catch (IllegalStateException e) {
+                    break;
+                }
+                it.set(-i);
+                break;
+            default:
+                assertEquals(expectedIt.nextIndex(), it.nextIndex());
+                assertEquals(expectedIt.hasNext(), it.hasNext());
+                assertEquals(expectedIt.hasPrevious(), it.hasPrevious());
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected.toString(), list.toString());
+        // walking back from the end must reach the same first item.
+        it = list.listIterator(list.size());
+        while (it.hasPrevious()) {
+            it.previous();
+        }
+        assertEquals(expected.get(0), it.next());
+    }
+
+    public void testIteratorIsFailFast() {
+        LinkedList<String> list = new LinkedList<String>(new String[] { "A", "B" });
+        Iterator<String> it = list.iterator();
+        assertEquals("A", it.next());
+        list.addLast("C");
+        try {
+            it.next();
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+        it = list.iterator();
+        list.set(0, "Z"); // not a structural change
+        assertEquals("Z", it.next());
+        it.next();
+        it.next();
+        try {
+            it.next();
+            fail();
+        } catch (NoSuchElementException expected) {
+        }
+    }
+
+    public void testAppendAllMovesNodes() {
+        LinkedList<String> list = new LinkedList<String>(new String[] { "A", "B" });
+        LinkedList<String> other = new LinkedList<String>(new String[] { "C", "D" });
+        list.appendAll(other);
+        assertEquals("[A, B, C, D]", list.toString());
+        assertEquals(0, other.size());
+        assertEquals("[]", other.toString());
+        list.appendAll(other); // appending an empty list changes nothing
+        assertEquals(4, list.size());
+        other.appendAll(list);
+        assertEquals("[A, B, C, D]", other.toString());
+        assertEquals("D", other.removeLast());
+        assertEquals("A", other.removeFirst());
+        try {
+            other.appendAll(other);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testSpliceAgainstArrayList() {
+        Random random = new Random(37);
+        LinkedList<Integer> list = new LinkedList<Integer>();
+        ArrayList<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 2000; i++) {
+            int size = expected.size();
+            int from = random.nextInt(size + 1);
+            int to = from + random.nextInt(size - from + 1);
+            switch (random.nextInt(3)) {
+            case 0:
+                LinkedList<Integer> batch = new LinkedList<Integer>();
+                ArrayList<Integer> expectedBatch = new ArrayList<Integer>();
+                for (int j = random.nextInt(5); j > 0; j--) {
+                    batch.addLast(i * 10 + j);
+                    expectedBatch.add(i * 10 + j);
+                }
+                list.insertAll(from, batch);
+                expected.addAll(from, expectedBatch);
+                assertEquals(0, batch.size());
+                break;
+            case 1:
+                LinkedList<Integer> range = list.removeRange(from, to);
+                ArrayList<Integer> expectedRange = 
+                    new ArrayList<Integer>(expected.subList(from, to));
+                expected.subList(from, to).clear();
+                assertEquals(expectedRange.toString(), range.toString());
+                assertEquals(expectedRange.size(), range.size());
+                break;
+            default:
+                LinkedList<Integer> tail = list.splitAt(from);
+                ArrayList<Integer> expectedTail = 
+                    new ArrayList<Integer>(expected.subList(from, size));
+                assertEquals(expectedTail.toString(), tail.toString());
+                list.appendAll(tail);
+            }
+            assertEquals(expected.size(), list.size());
+            if (expected.size() > 0) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), list.get(index));
+                assertEquals(expected.get(expected.size() - 1), list.getLast());
+            }
+        }
+        assertEquals(expected.toString(), list.toString());
+        ListIterator<Integer> it = list.listIterator(list.size());
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i), it.previous());
+        }
+    }
+
+    public void testMetrics() {
+        LinkedList<Integer> list = new LinkedList<Integer>();
+        Metrics metrics = list.enableMetrics();
+        for (int i = 0; i < 100; i++) {
+            list.addLast(i);
+        }
+        assertEquals(100, metrics.getNodeAllocations());
+        assertEquals(-1, metrics.getHeight());
+        
+        list.get(10); // from the first node
+        list.get(90); // from the last node
+        list.get(89); // from the finger
+        assertEquals(3, metrics.getIndexLookups());
+        assertEquals(10, metrics.getMaxHops());
+        assertEquals(20.0 / 3, metrics.getAverageHops(), 1e-9);
+        
+        metrics.reset();
+        for (int i = 0; i < list.size(); i++) {
+            list.get(i);
+        }
+        assertTrue(metrics.getAverageHops() <= 1.0);
+        assertEquals(0, metrics.getSearches());
+    }
+}
@@ -0,0 +1,78 @@
+package dat1.tests;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+import dat1.LongKeyTree;
+import dat1.NoSuchKeyException;
+
+public class LongKeyTreeTest extends TestCase {
+
+    private LongKeyTree<String> tree;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        tree = new LongKeyTree<String>(0);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        tree = null;
+    }
+
+    public void testExtremeKeys() {
+        assertNull(tree.add(0L, "zero"));
+        assertNull(tree.add(Long.MAX_VALUE, "max"));
+        assertNull(tree.add(Long.MIN_VALUE, "min"));
+        assertNull(tree.add(-1L, "minus one"));
+        assertEquals("[min, minus one, zero, max]", tree.toString());
+        assertEquals("min", tree.get(Long.MIN_VALUE));
+        assertEquals("max", tree.set(Long.MAX_VALUE, "MAX"));
+        assertEquals("min", tree.remove(Long.MIN_VALUE));
+        assertEquals("[minus one, zero, MAX]", tree.toString());
+        try {
+            tree.remove(Long.MIN_VALUE);
+            fail();
+        } catch (NoSuchKeyException expected) {
+        }
+        assertEquals(3, tree.size());
+    }
+
+    public void testAgainstTreeMap() {
+        Random random = new Random(5);
+        long[] pool = new long[5000];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = i % 2 == 0 ? random.nextLong() : random.nextInt(1000) - 500;
+        }
+        pool[0] = Long.MIN_VALUE;
+        pool[1] = Long.MAX_VALUE;
+        pool[2] = Long.MIN_VALUE + 1;
+        pool[3] = Long.MAX_VALUE - 1;
+        TreeMap<Long, String> expected = new TreeMap<Long, String>();
+        for (int i = 0; i < 50000; i++) {
+            long key = pool[random.nextInt(pool.length)];
+            if (random.nextInt(3) > 0) {
+                assertEquals(expected.put(key, "v" + i), tree.add(key, "v" + i));
+            } else if (expected.containsKey(key)) {
+                assertEquals(expected.remove(key), tree.remove(key));
+            } else {
+                try {
+                    tree.remove(key);
+                    fail();
+                } catch (NoSuchKeyException e) {
+                }
+                try {
+                    tree.get(key);
+                    fail();
+                } catch (NoSuchKeyException e) {
+                }
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(expected.values().toString(), tree.toString());
+        for (Long key : expected.keySet()) {
+            assertEquals(expected.get(key), tree.get(key));
+        }
+    }
+}
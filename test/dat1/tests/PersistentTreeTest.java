@@ -0,0 +1,181 @@
+package dat1.tests;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+import dat1.LinkedList;
+import dat1.NoSuchKeyException;
+import dat1.PersistentTree;
+
+public class PersistentTreeTest extends TestCase {
+
+    public void testOldVersionsAreUnchanged() {
+        PersistentTree<String, String> empty = new PersistentTree<String, String>();
+        PersistentTree<String, String> v1 = empty.add("B", "b").add("A", "a");
+        PersistentTree<String, String> v2 = v1.add("C", "c").set("A", "A");
+        PersistentTree<String, String> v3 = v2.remove("B");
+        assertEquals("[]", empty.toString());
+        assertEquals("[a, b]", v1.toString());
+        assertEquals("[A, b, c]", v2.toString());
+        assertEquals("[A, c]", v3.toString());
+        assertEquals(2, v3.size());
+        try {
+            v3.get("B");
+            fail();
+        } catch (NoSuchKeyException expected) {
+        }
+        assertEquals("b", v2.get("B"));
+    }
+
+    public void testAgainstTreeMap() {
+        Random random = new Random(9);
+        TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+        PersistentTree<Integer, String> tree = new PersistentTree<Integer, String>();
+        for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(2000);
+            if (random.nextInt(3) > 0) {
+                expected.put(key, "v" + i);
+                tree = tree.add(key, "v" + i);
+            } else if (expected.containsKey(key)) {
+                expected.remove(key);
+                tree = tree.remove(key);
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(expected.values().toString(), tree.toString());
+    }
+
+    public void testUnchangedVersionIsReturned() {
+        String b = "b";
+        PersistentTree<String, String> v1 = new PersistentTree<String, String>()
+            .add("A", "a").add("B", b).add("C", "c");
+        assertSame(v1, v1.add("B", b));
+        assertSame(v1, v1.set("B", b));
+        assertNotSame(v1, v1.set("B", "B"));
+        assertEquals("[a, b, c]", v1.toString());
+        try {
+            v1.remove("D");
+            fail();
+        } catch (NoSuchKeyException expected) {
+        }
+        try {
+            v1.set("D", "d");
+            fail();
+        } catch (NoSuchKeyException expected) {
+        }
+        assertEquals(3, v1.size());
+    }
+
+    /**
+     * Sorted insertions are the worst case for an unbalanced tree. The height
+     * of an AVL tree never exceeds 1.44&middot;log<sub>2</sub>(n + 2).
+     */
+    public void testSortedInsertsStayBalanced() {
+        PersistentTree<Integer, Integer> tree = new PersistentTree<Integer, Integer>();
+        for (int i = 0; i < 10000; i++) {
+            tree = tree.add(i, i);
+            assertTrue(tree.height() <= maxHeight(tree.size()));
+        }
+        for (int i = 0; i < 10000; i += 2) {
+            tree = tree.remove(i);
+            assertTrue(tree.height() <= maxHeight(tree.size()));
+        }
+        assertEquals(5000, tree.size());
+        assertEquals(0, new PersistentTree<Integer, Integer>().height());
+    }
+
+    /**
+     * A writer keeps deriving new versions from a base version and publishes
+     * them, while readers on other threads keep checking both the base
+     * version and whatever version was published last.
+     */
+    public void testReadersShareVersionsWithWriter() throws Throwable {
+        final int keys = 1000;
+        PersistentTree<Integer, Integer> tree = new PersistentTree<Integer, Integer>();
+        for (int key = 0; key < keys; key++) {
+            tree = tree.add(key, key);
+        }
+        final PersistentTree<Integer, Integer> base = tree;
+        final AtomicReference<PersistentTree<Integer, Integer>> latest =
+            new AtomicReference<PersistentTree<Integer, Integer>>(base);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final boolean writer = i == 0;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        if (writer) {
+                            write();
+                        } else {
+                            read();
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        done.set(true);
+                    }
+                }
+
+                // every version maps each key to the same value, so that
+                // any version can be checked without knowing which it is.
+                private void write() {
+                    Random random = new Random(9);
+                    PersistentTree<Integer, Integer> version = base;
+                    for (int i = 0; i < 100000; i++) {
+                        int key = random.nextInt(2 * keys);
+                        if (random.nextBoolean()) {
+                            version = version.add(key, key);
+                        } else if (version.contains(key)) {
+                            version = version.remove(key);
+                        }
+                        if (i % 1000 == 0) {
+                            version = base;
+                        }
+                        latest.set(version);
+                    }
+                }
+
+                private void read() {
+                    do {
+                        assertEquals(keys, base.size());
+                        for (int key = 0; key < keys; key++) {
+                            assertEquals(key, base.get(key).intValue());
+                        }
+                        PersistentTree<Integer, Integer> version = latest.get();
+                        LinkedList<Integer> values = version.asList();
+                        assertEquals(version.size(), values.size());
+                        int previous = -1;
+                        for (int value : values) {
+                            assertTrue(value > previous);
+                            assertEquals(value, version.get(value).intValue());
+                            previous = value;
+                        }
+                        assertTrue(version.height() <= maxHeight(version.size()));
+                    } while (!done.get());
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(60));
+            assertFalse(thread.isAlive());
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private static double maxHeight(int size) {
+        return 1.44 * Math.log(size + 2) / Math.log(2);
+    }
+}
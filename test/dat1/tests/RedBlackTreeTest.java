@@ -0,0 +1,148 @@
+package dat1.tests;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import dat1.NoSuchKeyException;
+import dat1.RedBlackTree;
+import dat1.RedBlackTreeNode;
+import dat1.TreeNode;
+import dat1.TreeNodeVisitor;
+import dat1.TreeTraverser;
+
+public class RedBlackTreeTest extends TestCase {
+
+    private RedBlackTree<Integer, String> tree;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        tree = new RedBlackTree<Integer, String>();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        tree = null;
+    }
+
+    public void testSortedInsertKeepsTreeBalanced() {
+        for (int i = 0; i < 10000; i++) {
+            tree.add(i, String.valueOf(i));
+        }
+        assertEquals(10000, tree.size());
+        assertValid(tree);
+        assertTrue(height(tree) <= 2 * log2(tree.size() + 1));
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(String.valueOf(i), tree.get(i));
+        }
+    }
+
+    public void testRandomInsertAndRemove() {
+        Random random = new Random(42);
+        boolean[] present = new boolean[2000];
+        int size = 0;
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(present.length);
+            if (random.nextBoolean()) {
+                tree.add(key, String.valueOf(key));
+                if (!present[key]) {
+                    size++;
+                }
+                present[key] = true;
+            } else if (present[key]) {
+                assertEquals(String.valueOf(key), tree.remove(key));
+                present[key] = false;
+                size--;
+            }
+            assertEquals(size, tree.size());
+        }
+        assertValid(tree);
+        for (int key = 0; key < present.length; key++) {
+            if (present[key]) {
+                assertEquals(String.valueOf(key), tree.get(key));
+            } else {
+                try {
+                    tree.get(key);
+                    fail();
+                } catch (NoSuchKeyException expected) {
+                }
+            }
+        }
+    }
+
+    public void testRemoveAll() {
+        for (int i = 0; i < 1000; i++) {
+            tree.add(i, String.valueOf(i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            tree.remove(i);
+            assertValid(tree);
+        }
+        assertEquals(0, tree.size());
+        assertEquals("[]", tree.toString());
+    }
+
+    private static int log2(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n);
+    }
+
+    private static int height(RedBlackTree<Integer, String> tree) {
+        final int[] height = new int[1];
+        tree.traverse(TreeTraverser.preOrder(
+            new TreeNodeVisitor() {
+                public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                    height[0] = Math.max(height[0], depth(node) + 1);
+                }
+            }
+        ));
+        return height[0];
+    }
+
+    private static int depth(TreeNode<?, ?> node) {
+        int depth = 0;
+        while (node.getParent() != null) {
+            node = node.getParent();
+            depth++;
+        }
+        return depth;
+    }
+
+    private static void assertValid(RedBlackTree<Integer, String> tree) {
+        final int[] blackHeight = { -1 };
+        final Integer[] previous = new Integer[1];
+        tree.traverse(TreeTraverser.inOrder(
+            new TreeNodeVisitor() {
+                public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                    int size = 1;
+                    if (node.getLeftChild() != null) {
+                        size += node.getLeftChild().getSubtreeSize();
+                    }
+                    if (node.getRightChild() != null) {
+                        size += node.getRightChild().getSubtreeSize();
+                    }
+                    assertEquals(size, node.getSubtreeSize());
+                    Integer key = (Integer)node.getKey();
+                    assertTrue(previous[0] == null || previous[0] < key);
+                    previous[0] = key;
+                    RedBlackTreeNode<K, V> rbNode = (RedBlackTreeNode<K, V>)node;
+                    if (node.getParent() == null) {
+                        assertFalse(rbNode.isRed());
+                    } else if (rbNode.isRed()) {
+                        assertFalse(((RedBlackTreeNode<K, V>)node.getParent()).isRed());
+                    }
+                    if (node.countChildren() < 2) {
+                        int blacks = 0;
+                        for (TreeNode<K, V> n = node; n != null; n = n.getParent()) {
+                            if (!((RedBlackTreeNode<K, V>)n).isRed()) {
+                                blacks++;
+                            }
+                        }
+                        if (blackHeight[0] < 0) {
+                            blackHeight[0] = blacks;
+                        }
+                        assertEquals(blackHeight[0], blacks);
+                    }
+                }
+            }
+        ));
+    }
+}
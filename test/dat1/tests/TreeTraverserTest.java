@@ -0,0 +1,240 @@
+package dat1.tests;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import junit.framework.TestCase;
+import dat1.BinaryTree;
+import dat1.TreeNode;
+import dat1.TreeNodeReducer;
+import dat1.TreeNodeVisitor;
+import dat1.TreeTraverser;
+
+public class TreeTraverserTest extends TestCase {
+
+    private BinaryTree<String, String> tree;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        tree = new BinaryTree<String, String>();
+        for (String key : new String[] { "E", "J", "D", "B", "G", "F", "A", "H", "C", "I" }) {
+            tree.add(key, key);
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        tree = null;
+    }
+
+    public void testTraversalOrders() {
+        final StringBuffer str = new StringBuffer();
+        TreeNodeVisitor appender = new TreeNodeVisitor() {
+            public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                str.append(node.getKey());
+            }
+        };
+        tree.traverse(TreeTraverser.preOrder(appender));
+        assertEquals("EDBACJGFHI", str.toString());
+        str.setLength(0);
+        tree.traverse(TreeTraverser.inOrder(appender));
+        assertEquals("ABCDEFGHIJ", str.toString());
+        str.setLength(0);
+        tree.traverse(TreeTraverser.postOrder(appender));
+        assertEquals("ACBDFIHGJE", str.toString());
+    }
+
+    public void testIteratorsMatchTraversals() {
+        final TreeNode<String, String>[] root = root(tree);
+        assertEquals("EDBACJGFHI", join(TreeTraverser.preOrderIterator(root[0])));
+        assertEquals("ABCDEFGHIJ", join(TreeTraverser.inOrderIterator(root[0])));
+        assertEquals("ACBDFIHGJE", join(TreeTraverser.postOrderIterator(root[0])));
+        // iterating over a subtree stays within that subtree.
+        TreeNode<String, String> d = root[0].getLeftChild();
+        assertEquals("DBAC", join(TreeTraverser.preOrderIterator(d)));
+        assertEquals("ABCD", join(TreeTraverser.inOrderIterator(d)));
+        assertEquals("ACBD", join(TreeTraverser.postOrderIterator(d)));
+        assertFalse(TreeTraverser.inOrderIterator(null).hasNext());
+    }
+
+    public void testSpliteratorSplitsInOrder() {
+        TreeNode<String, String> root = root(tree)[0];
+        Spliterator<TreeNode<String, String>> nodes = 
+            TreeTraverser.inOrderSpliterator(root);
+        assertFalse(nodes.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(10, nodes.estimateSize());
+        assertEquals("EDBACJGFHI", splitAndJoin(TreeTraverser.preOrderSpliterator(root)));
+        assertEquals("ABCDEFGHIJ", splitAndJoin(TreeTraverser.inOrderSpliterator(root)));
+        assertEquals("ACBDFIHGJE", splitAndJoin(TreeTraverser.postOrderSpliterator(root)));
+        
+        BinaryTree<Integer, Integer> balanced = BinaryTree.fromSorted(
+            keys(100000), keys(100000));
+        List<Integer> expected = new ArrayList<Integer>();
+        for (TreeNode<Integer, Integer> node : balanced.entries()) {
+            expected.add(node.getKey());
+        }
+        assertEquals(expected, StreamSupport.stream(TreeTraverser.inOrderSpliterator(
+            root(balanced)[0]), true).map(
+                new Function<TreeNode<Integer, Integer>, Integer>() {
+                    public Integer apply(TreeNode<Integer, Integer> node) {
+                        return node.getKey();
+                    }
+                }
+            ).collect(Collectors.toList()));
+    }
+
+    public void testSpliteratorOverHandLinkedNodes() {
+        // subtree sizes are only kept up to date by a BinaryTree.
+        TreeNode<Integer, Integer> root = new TreeNode<Integer, Integer>(2, 2);
+        root.setLeftChild(new TreeNode<Integer, Integer>(1, 1));
+        root.setRightChild(new TreeNode<Integer, Integer>(3, 3));
+        root.getRightChild().setRightChild(new TreeNode<Integer, Integer>(4, 4));
+        assertEquals(4, StreamSupport.stream(
+            TreeTraverser.preOrderSpliterator(root), false).count());
+        assertEquals(4, StreamSupport.stream(
+            TreeTraverser.inOrderSpliterator(root), true).toArray().length);
+        assertEquals(-1, TreeTraverser.postOrderSpliterator(root).getExactSizeIfKnown());
+        assertEquals(0, StreamSupport.stream(
+            TreeTraverser.inOrderSpliterator((TreeNode<Integer, Integer>)null), true).count());
+    }
+
+    public void testDegenerateTreeDoesNotOverflowStack() {
+        TreeNode<Integer, Integer> root = new TreeNode<Integer, Integer>(0, 0);
+        TreeNode<Integer, Integer> node = root;
+        for (int i = 1; i < 200000; i++) {
+            TreeNode<Integer, Integer> child = new TreeNode<Integer, Integer>(i, i);
+            node.setRightChild(child);
+            node = child;
+        }
+        final int[] count = new int[1];
+        TreeNodeVisitor counter = new TreeNodeVisitor() {
+            public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                count[0]++;
+            }
+        };
+        TreeTraverser.preOrder(counter).traverse(root);
+        TreeTraverser.inOrder(counter).traverse(root);
+        TreeTraverser.postOrder(counter).traverse(root);
+        assertEquals(600000, count[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testParallelTraversalVisitsEveryNodeOnce() {
+        BinaryTree<Integer, Integer> balanced = BinaryTree.fromSorted(
+            keys(100000), keys(100000));
+        assertEquals(sum(100000), parallelSum(balanced));
+        // sorted insertion degenerates the tree into a single chain.
+        BinaryTree<Integer, Integer> degenerate = new BinaryTree<Integer, Integer>();
+        for (int i = 0; i < 5000; i++) {
+            degenerate.add(i, i);
+        }
+        assertEquals(sum(5000), parallelSum(degenerate));
+    }
+
+    public void testReduceCombinesInTreeOrder() {
+        TreeNodeReducer<String> concat = new TreeNodeReducer<String>() {
+            public String identity() {
+                return "";
+            }
+            public <K extends Comparable<K>, V> String reduce(
+                    TreeNode<K, V> node, String left, String right) {
+                return left + node.getKey() + right;
+            }
+        };
+        assertEquals("ABCDEFGHIJ", tree.reduce(concat));
+        assertEquals("", new BinaryTree<String, String>().reduce(concat));
+        TreeNodeReducer<Integer> count = new TreeNodeReducer<Integer>() {
+            public Integer identity() {
+                return 0;
+            }
+            public <K extends Comparable<K>, V> Integer reduce(
+                    TreeNode<K, V> node, Integer left, Integer right) {
+                return left + 1 + right;
+            }
+        };
+        BinaryTree<Integer, Integer> degenerate = new BinaryTree<Integer, Integer>();
+        for (int i = 0; i < 5000; i++) {
+            degenerate.add(5000 - i, i);
+        }
+        assertEquals(Integer.valueOf(5000), degenerate.reduce(count));
+        assertEquals(Integer.valueOf(100000), BinaryTree.fromSorted(
+            keys(100000), keys(100000)).reduce(count));
+    }
+
+    private static long parallelSum(BinaryTree<Integer, Integer> tree) {
+        final AtomicLong sum = new AtomicLong();
+        final AtomicInteger count = new AtomicInteger();
+        tree.traverse(TreeTraverser.parallel(
+            new TreeNodeVisitor() {
+                public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                    sum.addAndGet((Integer)node.getKey());
+                    count.incrementAndGet();
+                }
+            }
+        ));
+        assertEquals(tree.size(), count.get());
+        return sum.get();
+    }
+
+    private static Integer[] keys(int n) {
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i;
+        }
+        return keys;
+    }
+
+    private static long sum(int n) {
+        return (long)n * (n - 1) / 2;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A extends Comparable<A>, B> TreeNode<A, B>[] root(BinaryTree<A, B> tree) {
+        final TreeNode<A, B>[] root = new TreeNode[1];
+        tree.traverse(TreeTraverser.preOrder(
+            new TreeNodeVisitor() {
+                public <K extends Comparable<K>, V> void visit(TreeNode<K, V> node) {
+                    if (node.getParent() == null) {
+                        root[0] = (TreeNode<A, B>)node;
+                    }
+                }
+            }
+        ));
+        return root;
+    }
+
+    private static String join(Iterator<TreeNode<String, String>> nodes) {
+        StringBuffer str = new StringBuffer();
+        while (nodes.hasNext()) {
+            str.append(nodes.next().getKey());
+        }
+        return str.toString();
+    }
+
+    /**
+     * Splits the spliterator as far as it goes, and joins the keys of all 
+     * the parts in order.
+     */
+    private static String splitAndJoin(Spliterator<TreeNode<String, String>> nodes) {
+        Spliterator<TreeNode<String, String>> prefix = nodes.trySplit();
+        if (prefix == null) {
+            final StringBuffer str = new StringBuffer();
+            while (nodes.tryAdvance(new Consumer<TreeNode<String, String>>() {
+                public void accept(TreeNode<String, String> node) {
+                    str.append(node.getKey());
+                }
+            })) {
+            }
+            return str.toString();
+        }
+        return splitAndJoin(prefix) + splitAndJoin(nodes);
+    }
+}
@@ -0,0 +1,109 @@
+package dat1.tests;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import dat1.UnrolledLinkedList;
+
+public class UnrolledLinkedListTest extends TestCase {
+
+    public void testEmptyList() {
+        UnrolledLinkedList<String> list = new UnrolledLinkedList<String>();
+        assertEquals(0, list.size());
+        assertNull(list.getFirst());
+        assertNull(list.removeLast());
+        assertEquals(-1, list.indexOf(null));
+        assertEquals("[]", list.toString());
+        try {
+            list.get(0);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    public void testConstructFromArray() {
+        UnrolledLinkedList<String> list = 
+            new UnrolledLinkedList<String>(new String[] { "A", null, "C", "A" });
+        assertEquals("[A, null, C, A]", list.toString());
+        assertEquals(1, list.indexOf(null));
+        assertEquals(3, list.lastIndexOf("A"));
+        assertEquals("C", list.set(2, "D"));
+        assertEquals("A", list.getLast());
+    }
+
+    public void testAgainstArrayList() {
+        Random random = new Random(11);
+        for (int blockSize : new int[] { 2, 3, 4, 16 }) {
+            UnrolledLinkedList<Integer> list = new UnrolledLinkedList<Integer>(blockSize);
+            ArrayList<Integer> expected = new ArrayList<Integer>();
+            for (int i = 0; i < 20000; i++) {
+                int size = expected.size();
+                switch (random.nextInt(8)) {
+                case 0:
+                    list.addFirst(i);
+                    expected.add(0, i);
+                    break;
+                case 1:
+                    list.addLast(i);
+                    expected.add(i);
+                    break;
+                case 2:
+                case 3:
+                    int index = random.nextInt(size + 1);
+                    list.add(index, i);
+                    expected.add(index, i);
+                    break;
+                case 4:
+                    if (size > 0) {
+                        index = random.nextInt(size);
+                        assertEquals(expected.remove(index), list.remove(index));
+                    }
+                    break;
+                case 5:
+                    assertEquals(size == 0 ? null : expected.remove(0), 
+                        list.removeFirst());
+                    break;
+                case 6:
+                    assertEquals(size == 0 ? null : expected.remove(size - 1), 
+                        list.removeLast());
+                    break;
+                default:
+                    if (size > 0) {
+                        index = random.nextInt(size);
+                        assertEquals(expected.get(index), list.get(index));
+                        assertEquals(expected.set(index, -i), list.set(index, -i));
+                        Integer item = expected.get(random.nextInt(size));
+                        assertEquals(expected.indexOf(item), list.indexOf(item));
+                        assertEquals(expected.lastIndexOf(item), list.lastIndexOf(item));
+                    }
+                }
+                assertEquals(expected.size(), list.size());
+            }
+            assertEquals(expected.toString(), list.toString());
+        }
+    }
+
+    public void testBlocksStayHalfFull() {
+        Random random = new Random(23);
+        for (int blockSize : new int[] { 2, 5, 32 }) {
+            UnrolledLinkedList<Integer> list = new UnrolledLinkedList<Integer>(blockSize);
+            ArrayList<Integer> expected = new ArrayList<Integer>();
+            for (int i = 0; i < 5000; i++) {
+                int index = random.nextInt(expected.size() + 1);
+                list.add(index, i);
+                expected.add(index, i);
+            }
+            while (expected.size() > 0) {
+                // removes mostly from a few places, to thin out some blocks
+                int index = random.nextInt(4) == 0 
+                    ? random.nextInt(expected.size()) 
+                    : (expected.size() - 1) * random.nextInt(3) / 2;
+                assertEquals(expected.remove(index), list.remove(index));
+                assertTrue(list.blockCount() <= 2 + list.size() / (blockSize / 2));
+            }
+            assertEquals(0, list.blockCount());
+            assertEquals("[]", list.toString());
+        }
+    }
+}